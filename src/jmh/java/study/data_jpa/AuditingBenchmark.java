@@ -0,0 +1,109 @@
+package study.data_jpa;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_jpa.entity.BaseEntity;
+import study.data_jpa.entity.Team;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * auditing 이 켜진 대량 insert 비용 : 트랜잭션 하나에서 엔티티 1000 개를 100 개씩 flush / clear
+ * - bulkInsert            : Team (JpaBaseEntity, 시각만)
+ * - bulkInsertWithAuditor : AuditedNote (BaseEntity, 시각 + 등록자 / 수정자 -> AuditorAware 를 트랜잭션당 한 번 조회)
+ * - off : auditing.enabled=false (값이 비어 있는 채로 insert)
+ * - on  : AuditStampListener (flush 당 시계 한 번, 엔티티마다 인터페이스 호출 + 값 배열 두 칸 / 네 칸)
+ * 매번 롤백한다. 스레드 4 개로 돌려서 공유 자원 (시계, 난수 등) 경합도 같이 본다.
+ *
+ * 실행 : ./gradlew jmh -PjmhArgs="Auditing -prof gc"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 10, time = 2) // H2 + hibernate 경로가 길어서 jit 안정화가 느림
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class AuditingBenchmark {
+
+    private static final int ROWS = 1_000;
+    private static final int BATCH = 100;
+
+    @Param({"off", "on"})
+    public String auditing;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager em;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("auditing" + auditing, WebApplicationType.NONE,
+                "--auditing.enabled=" + "on".equals(auditing));
+        em = context.getBean(EntityManager.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int bulkInsert() {
+        Integer result = transactionTemplate.execute(status -> {
+            for (int i = 1; i <= ROWS; i++) {
+                em.persist(new Team("team" + i));
+                if (i % BATCH == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            status.setRollbackOnly();
+            return ROWS;
+        });
+        return result == null ? 0 : result;
+    }
+
+    @Benchmark
+    public int bulkInsertWithAuditor() {
+        Integer result = transactionTemplate.execute(status -> {
+            for (int i = 1; i <= ROWS; i++) {
+                em.persist(new AuditedNote("note" + i));
+                if (i % BATCH == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            status.setRollbackOnly();
+            return ROWS;
+        });
+        return result == null ? 0 : result;
+    }
+
+    /**
+     * 등록자 / 수정자까지 있는 BaseEntity 하위 엔티티 (main 모델에는 없어서 벤치마크에서만 매핑, 엔티티 스캔 대상 패키지)
+     */
+    @Entity
+    public static class AuditedNote extends BaseEntity {
+
+        @Id
+        @GeneratedValue
+        private Long id;
+
+        private String title;
+
+        protected AuditedNote() {
+        }
+
+        AuditedNote(String title) {
+            this.title = title;
+        }
+    }
+}
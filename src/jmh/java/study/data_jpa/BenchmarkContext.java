@@ -0,0 +1,67 @@
+package study.data_jpa;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크용 스프링 컨텍스트 : 기본은 웹 서버 없이 JPA 계층만 H2 (MySQL 모드) 메모리 db 로 띄운다.
+ * sql / bind 로그, p6spy 로그, sql 통계 경고는 측정에 섞이지 않도록 끈다.
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String database) {
+        return start(database, WebApplicationType.NONE);
+    }
+
+    /**
+     * @param extraArgs 추가 커맨드라인 인자 (모드별 설정 전환 등)
+     */
+    public static ConfigurableApplicationContext start(String database, WebApplicationType webType, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                // 커맨드라인 인자 = application.properties / yml 보다 우선
+                "--spring.datasource.url=jdbc:h2:mem:" + database + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--logging.level.root=warn",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--logging.level.org.hibernate.orm.jdbc.bind=warn",
+                "--logging.level.study.data_jpa.monitor=error", // 벤치마크가 일부러 만드는 N + 1 경고
+                "--decorator.datasource.p6spy.enable-logging=false"
+        ));
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(webType)
+                .run(args.toArray(String[]::new));
+    }
+
+    /**
+     * team rows / 100 개 (최소 1), member rows 개 생성
+     * member 의 username 은 member0 ~ member9 가 반복되고 team 은 순서대로 돌아가며 배정
+     */
+    public static void seedMembers(ConfigurableApplicationContext context, int rows) {
+        int teams = Math.max(1, rows / 100);
+        EntityManager em = context.getBean(EntityManager.class);
+        context.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            em.createNativeQuery("insert into team (team_id, name, version) " +
+                    "select n, concat('team', n), 0 from system_range(1, " + teams + ") r(n)").executeUpdate();
+            em.createNativeQuery("insert into member (member_id, username, age, team_id, version) " +
+                    "select n, concat('member', mod(n, 10)), mod(n, 100), mod(n, " + teams + ") + 1, 0 " +
+                    "from system_range(1, " + rows + ") r(n)").executeUpdate();
+            // 이후 엔티티 저장 시 id 가 겹치지 않도록 sequence 를 seed 뒤로 이동
+            em.createNativeQuery("alter sequence member_seq restart with " + (rows + 1)).executeUpdate();
+            em.createNativeQuery("alter sequence team_seq restart with " + (teams + 1)).executeUpdate();
+        });
+    }
+}
@@ -0,0 +1,80 @@
+package study.data_jpa;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_jpa.entity.Member;
+import study.data_jpa.repository.BulkEviction;
+import study.data_jpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 벌크 수정 뒤 같은 트랜잭션에서 이어지는 조회까지 포함한 비용 비교
+ * 트랜잭션 하나에서 회원 1000 명 (+ 팀) 로딩 -> age >= 90 (10 %) 벌크 + 1 -> 같은 회원 / 팀을 다시 읽는다.
+ * 데이터가 계속 바뀌지 않도록 매번 롤백한다.
+ * - clear : @Modifying(clearAutomatically = true) -> 1000 명 전부 다시 로딩
+ * - type  : Member 만 detach (팀은 유지), 2차 캐시는 Member region 전체 비움
+ * - ids   : 바뀐 100 명만 detach, 2차 캐시도 그 id 만 비움
+ *
+ * 실행 : ./gradlew jmh -PjmhArgs="BulkEviction -prof gc"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 10, time = 2) // H2 + hibernate 경로가 길어서 jit 안정화가 느림
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BulkEvictionBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final long LOADED = 1_000;
+
+    @Param({"clear", "type", "ids"})
+    public String eviction;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private EntityManager em;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("bulk" + eviction);
+        BenchmarkContext.seedMembers(context, ROWS);
+        memberRepository = context.getBean(MemberRepository.class);
+        em = context.getBean(EntityManager.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int bulkUpdateThenRead() {
+        Integer result = transactionTemplate.execute(status -> {
+            em.createQuery("select m from Member m join fetch m.team where m.id <= :loaded", Member.class)
+                    .setParameter("loaded", LOADED)
+                    .getResultList();
+
+            switch (eviction) {
+                case "clear" -> memberRepository.bulkAgePlus(90);
+                case "type" -> memberRepository.bulkAgePlus(90, BulkEviction.TYPE);
+                default -> memberRepository.bulkAgePlus(90, BulkEviction.IDS);
+            }
+
+            int sum = 0;
+            for (long id = 1; id <= LOADED; id++) {
+                Member member = em.find(Member.class, id);
+                sum += member.getAge() + member.getTeam().getName().length();
+            }
+            status.setRollbackOnly();
+            return sum;
+        });
+        return result == null ? 0 : result;
+    }
+}
@@ -0,0 +1,86 @@
+package study.data_jpa;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_jpa.entity.Member;
+import study.data_jpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * MemberRepository 의 member + team 조회 방식 비교
+ * 각 벤치마크는 읽기 전용 트랜잭션 하나에서 회원 목록을 조회하고 모든 회원의 team.name 을 읽는다.
+ *
+ * 실행 : ./gradlew jmh -PjmhArgs="FetchStrategy -prof gc"
+ *        ./gradlew jmh -PjmhArgs="FetchStrategy -p rows=1000 -prof gc"   (데이터 크기 지정)
+ * - findEntityGraphByUsername 은 username 조건이 있어서 전체의 1/10 (member0) 만 조회한다.
+ * - lazyLoading 은 fetch join 없이 조회 후 team 을 지연 로딩 (Team 은 2차 캐시 대상이라 warmup 이후에는 캐시 hit)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FetchStrategyBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("fetch" + rows);
+        BenchmarkContext.seedMembers(context, rows);
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(TransactionTemplate.class).getTransactionManager());
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int fetchJoin() {
+        return touchTeams(() -> memberRepository.findMemberFetchJoin());
+    }
+
+    @Benchmark
+    public int entityGraphJpql() {
+        return touchTeams(() -> memberRepository.findMemberEntityGraph());
+    }
+
+    @Benchmark
+    public int entityGraphFindAll() {
+        return touchTeams(() -> memberRepository.findAll());
+    }
+
+    @Benchmark
+    public int namedEntityGraphByUsername() {
+        return touchTeams(() -> memberRepository.findEntityGraphByUsername("member0"));
+    }
+
+    @Benchmark
+    public int lazyLoading() {
+        return touchTeams(() -> memberRepository.findMemberCustom());
+    }
+
+    private int touchTeams(Supplier<List<Member>> query) {
+        Integer result = readOnly.execute(status -> {
+            int sum = 0;
+            for (Member member : query.get()) {
+                sum += member.getTeam().getName().length();
+            }
+            return sum;
+        });
+        return result == null ? 0 : result;
+    }
+}
@@ -0,0 +1,72 @@
+package study.data_jpa;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_jpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * 이름 in 조회 : in 절 하나 (findByNames) vs 패딩된 청크 동시 실행 (findByNamesInChunks)
+ * 회원 100000 명 (username 은 모두 다름), 이름 names 개 중 절반만 존재
+ * - single  : readOnly 트랜잭션 하나에서 in 절 하나 (hibernate 가 파라미터 수를 2 의 거듭제곱으로 패딩)
+ * - chunked : 16 / 64 / 256 / 1024 청크, 트랜잭션 밖에서 호출 -> 청크마다 가상 스레드 + 커넥션
+ * H2 메모리 db 는 네트워크 왕복이 없어서 실제 MySQL 보다 동시 실행 이득이 작게 나온다.
+ *
+ * 실행 : ./gradlew jmh -PjmhArgs="InList -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 10, time = 2) // H2 + hibernate 경로가 길어서 jit 안정화가 느림
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class InListBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    @Param({"10", "1000", "50000"})
+    public int names;
+
+    @Param({"single", "chunked"})
+    public String strategy;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnlyTransaction;
+    private List<String> nameList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("inlist" + names + strategy);
+        BenchmarkContext.seedMembers(context, ROWS);
+        EntityManager em = context.getBean(EntityManager.class);
+        context.getBean(TransactionTemplate.class).executeWithoutResult(status ->
+                em.createNativeQuery("update member set username = concat('member', member_id)").executeUpdate());
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        nameList = IntStream.range(0, names)
+                .mapToObj(i -> i % 2 == 0 ? "member" + (i + 1) : "missing" + i) // 절반은 없는 이름
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int findByNames() {
+        if ("single".equals(strategy)) {
+            Integer found = readOnlyTransaction.execute(status -> memberRepository.findByNames(nameList).size());
+            return found == null ? 0 : found;
+        }
+        return memberRepository.findByNamesInChunks(nameList).size();
+    }
+}
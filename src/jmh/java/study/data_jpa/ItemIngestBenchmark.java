@@ -0,0 +1,90 @@
+package study.data_jpa;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_jpa.entity.Item;
+import study.data_jpa.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 문자열 id Item 100 만 개 적재 (한 번 실행 시간)
+ * - saveAll    : 엔티티 persist, batch_size 마다 flush / clear (AssignedIdEntity 덕분에 merge 전 select 는 없음)
+ * - persistAll : jdbc 배치 insert
+ * - upsertAll  : 절반 (짝수 id) 이 이미 있는 테이블에 merge / on duplicate key update
+ * 반복마다 테이블을 비우고 (upsertAll 은 절반을 미리 채우고) 시작한다.
+ *
+ * 실행 : ./gradlew jmh -PjmhArgs="ItemIngest -prof gc"
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ItemIngestBenchmark {
+
+    private static final int ROWS = 1_000_000;
+    private static final int BATCH = 100;
+
+    @Param({"saveAll", "persistAll", "upsertAll"})
+    public String strategy;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager em;
+    private TransactionTemplate transactionTemplate;
+    private ItemRepository itemRepository;
+    private List<Item> items;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("ingest" + strategy, WebApplicationType.NONE);
+        em = context.getBean(EntityManager.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        itemRepository = context.getBean(ItemRepository.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createNativeQuery("truncate table item").executeUpdate();
+            if ("upsertAll".equals(strategy)) {
+                em.createNativeQuery("insert into item (id, name, created_date) " +
+                        "select concat('item', n), 'old', current_timestamp from system_range(0, " + (ROWS - 1) + ", 2) r(n)").executeUpdate();
+            }
+        });
+        items = new ArrayList<>(ROWS); // saveAll 은 createdDate 가 채워지므로 매번 새 엔티티
+        for (int i = 0; i < ROWS; i++) {
+            items.add(new Item("item" + i, "name" + i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int ingest() {
+        Integer result = transactionTemplate.execute(status -> switch (strategy) {
+            case "persistAll" -> itemRepository.persistAll(items);
+            case "upsertAll" -> itemRepository.upsertAll(items);
+            default -> {
+                for (int i = 0; i < ROWS; i++) {
+                    em.persist(items.get(i));
+                    if ((i + 1) % BATCH == 0) {
+                        em.flush();
+                        em.clear();
+                    }
+                }
+                yield ROWS;
+            }
+        });
+        return result == null ? 0 : result;
+    }
+}
@@ -0,0 +1,76 @@
+package study.data_jpa;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import study.data_jpa.entity.Member;
+import study.data_jpa.repository.MemberRepository;
+import study.data_jpa.repository.MemberSearchRow;
+import study.data_jpa.repository.MemberSpec;
+import study.data_jpa.repository.MemberTeamSearchRow;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /members/search 의 조회 (MemberRepository.search) : 회원 1000000 명, 팀 10000 개
+ * 첫 페이지 20 명 + 그 커서로 다음 페이지 20 명
+ * - age      : 나이 50 ~ 59 (10 %), 팀 join 없음
+ * - username : username = member3 (10 %), (username, member_id) 인덱스 범위 조회
+ * - team     : 팀 이름 = team42 (100 명) + 결과에 팀 이름 (inner join 한 번)
+ * setUp 에서 각 조건의 sql 을 한 번 로그로 출력한다 (쿼리 모양 확인용).
+ *
+ * 실행 : ./gradlew jmh -PjmhArgs="MemberSearch"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class MemberSearchBenchmark {
+
+    private static final int ROWS = 1_000_000;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"age", "username", "team"})
+    public String filter;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private Specification<Member> spec;
+    private Class<?> type;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("search" + filter);
+        BenchmarkContext.seedMembers(context, ROWS);
+        memberRepository = context.getBean(MemberRepository.class);
+        spec = switch (filter) {
+            case "age" -> MemberSpec.ageGoe(50).and(MemberSpec.ageLoe(59));
+            case "username" -> MemberSpec.username("member3");
+            default -> MemberSpec.teamName("team42");
+        };
+        type = "team".equals(filter) ? MemberTeamSearchRow.class : MemberSearchRow.class;
+
+        LoggingSystem loggingSystem = context.getBean(LoggingSystem.class);
+        loggingSystem.setLogLevel("org.hibernate.SQL", LogLevel.DEBUG);
+        twoPages();
+        loggingSystem.setLogLevel("org.hibernate.SQL", LogLevel.WARN);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int twoPages() {
+        Window<?> first = memberRepository.search(spec, type, ScrollPosition.keyset(), PAGE_SIZE);
+        ScrollPosition next = first.positionAt(first.size() - 1);
+        return first.size() + memberRepository.search(spec, type, next, PAGE_SIZE).size();
+    }
+}
@@ -0,0 +1,139 @@
+package study.data_jpa;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * /members 부하 테스트 (jmh 가 아닌 main) : 동시 클라이언트 N 개가 쉬지 않고 GET /members 를 호출
+ * 모드마다 앱을 새로 띄우고 (H2 회원 10000 명) 5 초 워밍업 후 측정한다.
+ * - platform        : tomcat 플랫폼 스레드 풀 (기본 200)
+ * - virtual         : 요청마다 가상 스레드, 동시 실행 제한 없음 (hikari 대기열에서 대기)
+ * - virtual+limiter : 가상 스레드 + DbConcurrencyLimitFilter (풀 크기만큼만 실행, 나머지는 max-wait 뒤 503)
+ * 클라이언트와 서버가 같은 jvm / cpu 를 나눠 쓰므로 절대값보다는 모드 간 비교용.
+ *
+ * 실행 : ./gradlew loadTest -PloadTestArgs="5000 20"   (동시 클라이언트 수, 모드별 측정 초)
+ */
+public final class MembersLoadTest {
+
+    private static final int WARMUP_SECONDS = 5;
+
+    private record Mode(String name, boolean virtualThreads, boolean limiter) {
+    }
+
+    private record Result(long ok, long rejected, long errors, long[] okLatencies) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        List<Mode> modes = List.of(
+                new Mode("platform", false, false),
+                new Mode("virtual", true, false),
+                new Mode("virtual+limiter", true, true));
+
+        List<String> report = new ArrayList<>();
+        for (Mode mode : modes) {
+            Result result = run(mode, clients, seconds);
+            long[] latencies = result.okLatencies();
+            Arrays.sort(latencies);
+            report.add(String.format("%-16s ok/s=%8.1f  p50=%7.1fms  p99=%8.1fms  max=%8.1fms  503=%d  errors=%d",
+                    mode.name(), result.ok() / (double) seconds,
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0),
+                    result.rejected(), result.errors()));
+        }
+        System.out.println();
+        System.out.println("GET /members, " + clients + " concurrent clients, " + seconds + "s");
+        report.forEach(System.out::println);
+    }
+
+    private static Result run(Mode mode, int clients, int seconds) throws Exception {
+        ConfigurableApplicationContext context = BenchmarkContext.start("load" + mode.name().replace('+', '_'),
+                WebApplicationType.SERVLET,
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + mode.virtualThreads(),
+                "--db-limiter.enabled=" + mode.limiter());
+        try {
+            BenchmarkContext.seedMembers(context, 10_000);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor();
+                 HttpClient http = HttpClient.newBuilder()
+                         .version(HttpClient.Version.HTTP_1_1)
+                         .executor(clientThreads)
+                         .connectTimeout(Duration.ofSeconds(30))
+                         .build()) {
+                load(http, clientThreads, port, clients, WARMUP_SECONDS);
+                return load(http, clientThreads, port, clients, seconds);
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Result load(HttpClient http, ExecutorService clientThreads, int port, int clients, int seconds) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        List<Future<long[]>> futures = new ArrayList<>(clients);
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            futures.add(clientThreads.submit(() -> {
+                long[] latencies = new long[64];
+                int count = 0;
+                for (int i = 0; System.nanoTime() < deadline; i++) {
+                    HttpRequest request = HttpRequest.newBuilder(
+                                    URI.create("http://localhost:" + port + "/members?page=" + ((client + i) % 100 + 1) + "&size=20"))
+                            .timeout(Duration.ofSeconds(60))
+                            .GET()
+                            .build();
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == 200) {
+                            if (count == latencies.length) {
+                                latencies = Arrays.copyOf(latencies, count * 2);
+                            }
+                            latencies[count++] = System.nanoTime() - start;
+                        } else if (response.statusCode() == 503) {
+                            rejected.incrementAndGet();
+                        } else {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+
+        List<long[]> perClient = new ArrayList<>(clients);
+        for (Future<long[]> future : futures) {
+            perClient.add(future.get());
+        }
+        long[] all = perClient.stream().flatMapToLong(Arrays::stream).toArray();
+        return new Result(all.length, rejected.get(), errors.get(), all);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
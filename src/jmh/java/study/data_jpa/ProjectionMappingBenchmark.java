@@ -0,0 +1,77 @@
+package study.data_jpa;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import study.data_jpa.entity.Member;
+import study.data_jpa.repository.ClosedProjectionQuery;
+import study.data_jpa.repository.UsernameOnly;
+import study.data_jpa.repository.UsernameOnlyDto;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * projection 매핑 비용 비교 (db 조회 제외, row 10만건 매핑 + getter 호출)
+ * - spelProxy      : 예전 UsernameOnly (@Value SpEL open projection) -> 엔티티를 감싼 스프링 프록시
+ * - dto            : UsernameOnlyDto 클래스 projection
+ * - proxyMapper    : ClosedProjectionQuery 의 mapper (select 절에서 계산된 컬럼 -> JDK 프록시 getter, 배열 index 로 dispatch)
+ * 실행 : ./gradlew jmh -PjmhArgs="ProjectionMapping -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectionMappingBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    public interface SpelUsernameOnly {
+        @Value("#{target.username + ' ' + target.age}")
+        String getUsername();
+    }
+
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+    private Member[] members;
+    private Object[][] rows;
+    private ClosedProjectionQuery query;
+
+    @Setup
+    public void setUp() {
+        members = new Member[ROWS];
+        rows = new Object[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            members[i] = new Member("member" + i, i % 100);
+            rows[i] = new Object[]{"member" + i + " " + (i % 100)};
+        }
+        query = ClosedProjectionQuery.of(UsernameOnly.class);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void spelProxy(Blackhole blackhole) {
+        for (Member member : members) {
+            blackhole.consume(projectionFactory.createProjection(SpelUsernameOnly.class, member).getUsername());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void dto(Blackhole blackhole) {
+        for (Object[] row : rows) {
+            blackhole.consume(new UsernameOnlyDto((String) row[0]).getUsername());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void proxyMapper(Blackhole blackhole) {
+        for (Object[] row : rows) {
+            UsernameOnly usernameOnly = query.map(row);
+            blackhole.consume(usernameOnly.getUsername());
+        }
+    }
+}
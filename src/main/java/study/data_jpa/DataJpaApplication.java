@@ -4,12 +4,15 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.domain.AuditorAware;
-import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+import java.time.Clock;
 import java.util.Optional;
 import java.util.UUID;
 
-// @EnableJpaAuditing
+@EnableAsync // spring.threads.virtual.enabled 이면 @Async 도 가상 스레드에서 실행
+@EnableScheduling // TeamStatsReconciler
 @SpringBootApplication
 public class DataJpaApplication {
 
@@ -17,8 +20,15 @@ public class DataJpaApplication {
 		SpringApplication.run(DataJpaApplication.class, args);
 	}
 
+	// 등록자 / 수정자 : AuditStampListener 가 트랜잭션당 한 번만 호출 (AuditingConfig)
 	@Bean
 	public AuditorAware<String> auditorProvider() {
 		return () -> Optional.of(UUID.randomUUID().toString());
 	}
+
+	// 등록 / 수정 시각 : AuditStampListener 와 jdbc 벌크 insert (ItemBulkRepositoryImpl) 가 같은 시계를 사용
+	@Bean
+	public Clock auditingClock() {
+		return Clock.systemDefaultZone();
+	}
 }
@@ -0,0 +1,181 @@
+package study.data_jpa.config;
+
+import org.hibernate.event.spi.AutoFlushEvent;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.PreInsertEvent;
+import org.hibernate.event.spi.PreInsertEventListener;
+import org.hibernate.event.spi.PreUpdateEvent;
+import org.hibernate.event.spi.PreUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.metamodel.mapping.AttributeMapping;
+import org.springframework.data.annotation.CreatedBy;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedBy;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.data_jpa.entity.AuditStamped;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AuditingEntityListener / @PrePersist 대신 쓰는 hibernate 이벤트 리스너 (AuditingConfig 에서 등록)
+ * - 등록자 (AuditorAware) 는 트랜잭션당 한 번만 조회하고, 등록자 필드가 있는 엔티티가 없으면 조회하지 않는다
+ * - 시각은 flush 당 한 번만 읽는다 -> 같은 flush 로 insert / update 되는 엔티티는 모두 같은 시각
+ * - 엔티티 값은 AuditStamped 메서드로 넣고, 이미 만들어진 insert / update 값 배열의 해당 칸도 같이 바꾼다
+ *   (칸 위치는 엔티티 타입마다 한 번만 어노테이션을 읽어서 캐시, 이벤트마다 리플렉션 없음)
+ * 트랜잭션 밖에서 flush 되면 (스프링 트랜잭션 동기화가 없으면) 이벤트마다 새로 조회한다.
+ */
+public class AuditStampListener implements PreInsertEventListener, PreUpdateEventListener,
+        FlushEventListener, AutoFlushEventListener {
+
+    private final AuditorAware<String> auditorAware;
+    private final Clock clock;
+    private final Map<String, Slots> slotsByEntity = new ConcurrentHashMap<>();
+
+    public AuditStampListener(AuditorAware<String> auditorAware, Clock clock) {
+        this.auditorAware = auditorAware;
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean onPreInsert(PreInsertEvent event) {
+        if (event.getEntity() instanceof AuditStamped audited) {
+            Slots slots = slots(event.getPersister());
+            Stamp stamp = currentStamp();
+            String auditor = slots.usesAuditor() ? stamp.auditor() : null;
+            LocalDateTime now = stamp.now();
+            audited.stampCreated(auditor, now);
+            slots.created(event.getState(), auditor, now);
+        }
+        return false; // insert 를 막지 않음
+    }
+
+    @Override
+    public boolean onPreUpdate(PreUpdateEvent event) {
+        if (event.getEntity() instanceof AuditStamped audited) {
+            Slots slots = slots(event.getPersister());
+            Stamp stamp = currentStamp();
+            String auditor = slots.lastModifiedBy >= 0 ? stamp.auditor() : null;
+            LocalDateTime now = stamp.now();
+            audited.stampModified(auditor, now);
+            slots.modified(event.getState(), auditor, now);
+        }
+        return false;
+    }
+
+    // 기본 flush 리스너 뒤에 등록 -> flush 가 끝나면 다음 flush 는 새 시각
+    @Override
+    public void onFlush(FlushEvent event) {
+        endFlush();
+    }
+
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) {
+        endFlush();
+    }
+
+    private void endFlush() {
+        if (TransactionSynchronizationManager.getResource(this) instanceof Stamp stamp) {
+            stamp.now = null;
+        }
+    }
+
+    private Stamp currentStamp() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new Stamp();
+        }
+        if (TransactionSynchronizationManager.getResource(this) instanceof Stamp stamp) {
+            return stamp;
+        }
+        Stamp stamp = new Stamp();
+        TransactionSynchronizationManager.bindResource(this, stamp);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(AuditStampListener.this);
+            }
+        });
+        return stamp;
+    }
+
+    private Slots slots(EntityPersister persister) {
+        return slotsByEntity.computeIfAbsent(persister.getEntityName(), name -> Slots.of(persister));
+    }
+
+    // 트랜잭션 하나의 등록자 / 현재 flush 의 시각
+    private final class Stamp {
+        private String auditor;
+        private boolean auditorResolved;
+        private LocalDateTime now;
+
+        String auditor() {
+            if (!auditorResolved) {
+                auditor = auditorAware.getCurrentAuditor().orElse(null);
+                auditorResolved = true;
+            }
+            return auditor;
+        }
+
+        LocalDateTime now() {
+            if (now == null) {
+                now = LocalDateTime.now(clock).truncatedTo(ChronoUnit.MICROS); // db (datetime(6)) 에 저장되는 값과 같도록
+            }
+            return now;
+        }
+    }
+
+    /**
+     * 엔티티 타입 하나의 auditing 필드가 insert / update 값 배열의 몇 번째 칸인지 (없으면 -1)
+     */
+    private record Slots(int createdDate, int lastModifiedDate, int createdBy, int lastModifiedBy) {
+
+        static Slots of(EntityPersister persister) {
+            return new Slots(index(persister, CreatedDate.class), index(persister, LastModifiedDate.class),
+                    index(persister, CreatedBy.class), index(persister, LastModifiedBy.class));
+        }
+
+        private static int index(EntityPersister persister, Class<? extends Annotation> annotation) {
+            for (Class<?> c = persister.getMappedClass(); c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (field.isAnnotationPresent(annotation)) {
+                        AttributeMapping attribute = persister.findAttributeMapping(field.getName());
+                        return attribute == null ? -1 : attribute.getStateArrayPosition();
+                    }
+                }
+            }
+            return -1;
+        }
+
+        boolean usesAuditor() {
+            return createdBy >= 0 || lastModifiedBy >= 0;
+        }
+
+        void created(Object[] state, String auditor, LocalDateTime now) {
+            set(state, createdDate, now);
+            set(state, lastModifiedDate, now);
+            set(state, createdBy, auditor);
+            set(state, lastModifiedBy, auditor);
+        }
+
+        void modified(Object[] state, String auditor, LocalDateTime now) {
+            set(state, lastModifiedDate, now);
+            set(state, lastModifiedBy, auditor);
+        }
+
+        private static void set(Object[] state, int index, Object value) {
+            if (index >= 0) {
+                state[index] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package study.data_jpa.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.AuditorAware;
+
+import java.time.Clock;
+
+/**
+ * AuditStamped 엔티티의 등록 / 수정 시각, 등록자 / 수정자 채우기 (auditing.enabled=false 면 채우지 않음)
+ * @EnableJpaAuditing + AuditingEntityListener 대신 hibernate 이벤트 리스너로 직접 등록한다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "auditing", name = "enabled", matchIfMissing = true)
+public class AuditingConfig {
+
+    @Bean
+    public AuditStampListener auditStampListener(EntityManagerFactory entityManagerFactory, AuditorAware<String> auditorAware,
+                                                 Clock auditingClock) {
+        AuditStampListener listener = new AuditStampListener(auditorAware, auditingClock);
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.PRE_INSERT, listener);
+        registry.appendListeners(EventType.PRE_UPDATE, listener);
+        registry.appendListeners(EventType.FLUSH, listener); // 기본 flush 리스너 뒤에 실행
+        registry.appendListeners(EventType.AUTO_FLUSH, listener);
+        return listener;
+    }
+}
@@ -0,0 +1,160 @@
+package study.data_jpa.config;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * db 를 쓰는 요청의 동시 실행 수를 커넥션 풀 크기로 제한
+ * 가상 스레드는 요청마다 만들어지므로 제한이 없으면 수천 개가 hikari 대기열에 쌓였다가 connectionTimeout (30s) 뒤에야 실패한다.
+ * 풀 크기만큼만 들여보내고 나머지는 semaphore 에서 (carrier 를 붙잡지 않고) max-wait 만큼 기다리다가 503 으로 빨리 돌려보낸다.
+ * 기본 설정은 open-in-view 로 요청이 끝날 때까지 커넥션을 들고 있으므로 요청 단위로 제한한다.
+ * 복제본 라우팅을 켜면 커넥션은 트랜잭션마다 반납하지만 (RoutingDataSourceConfig) 요청 하나가 동시에 잡는 커넥션은 여전히 하나다.
+ * 비동기 요청 (StreamingResponseBody 등) 은 async dispatch 에서 db 를 쓰고 이 필터는 그때 다시 실행되지 않으므로
+ * 자리는 async 가 끝날 때 (AsyncListener) 반납한다.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(prefix = "db-limiter", name = "enabled", matchIfMissing = true)
+public class DbConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Semaphore permits;
+    private final Duration maxWait;
+    private final int maxQueue;
+    private final List<String> paths;
+    private final List<String> excludePaths;
+    private final Counter rejected;
+
+    public DbConcurrencyLimitFilter(DataSource dataSource,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${db-limiter.permits:0}") int permits,
+                                    @Value("${db-limiter.max-wait:1s}") Duration maxWait,
+                                    @Value("${db-limiter.max-queue:1000}") int maxQueue,
+                                    @Value("${db-limiter.paths:/members/**}") List<String> paths,
+                                    @Value("${db-limiter.exclude-paths:}") List<String> excludePaths) {
+        int limit = permits > 0 ? permits : poolSize(dataSource);
+        this.permits = new Semaphore(limit, true); // 공정 모드 : 먼저 온 요청부터 -> 대기 시간 꼬리(p99) 가 max-wait 로 묶인다
+        this.maxWait = maxWait;
+        this.maxQueue = maxQueue;
+        this.paths = paths;
+        this.excludePaths = excludePaths;
+        this.rejected = meterRegistry.counter("db.limiter.rejected");
+        Gauge.builder("db.limiter.active", this.permits, p -> limit - p.availablePermits()).register(meterRegistry);
+        Gauge.builder("db.limiter.waiting", waiting, AtomicInteger::get).register(meterRegistry);
+        log.info("db concurrency limit : {} permits, max-wait {}, max-queue {}, paths {} (exclude {})", limit, maxWait, maxQueue, paths, excludePaths);
+    }
+
+    // permits 를 지정하지 않으면 hikari maximumPoolSize (p6spy 등으로 감싸져 있어도 풀어서 찾는다)
+    private static int poolSize(DataSource dataSource) {
+        HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class, HikariDataSource.class);
+        int size = hikari != null ? hikari.getMaximumPoolSize() : -1;
+        return size > 0 ? size : 10; // 설정하지 않았으면 풀이 시작되기 전까지 -1 (hikari 기본값 10)
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return paths.stream().noneMatch(pattern -> pathMatcher.match(pattern, path))
+                || excludePaths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!acquire()) {
+            rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+        Permit permit = new Permit();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(permit);
+            } else {
+                permit.release();
+            }
+        }
+    }
+
+    // async 가 끝날 때 반납 (오류 / 타임아웃 뒤에도 컨테이너가 complete 를 부른다 -> 그 사이 아직 db 를 쓰고 있을 수 있으므로 complete 에서만)
+    private final class Permit implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this); // startAsync 를 다시 부르면 리스너가 지워지므로 다시 등록
+        }
+    }
+
+    private boolean acquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (waiting.incrementAndGet() > maxQueue) { // 이미 대기열이 꽉 찼으면 기다리지 않고 거절
+            waiting.decrementAndGet();
+            return false;
+        }
+        try {
+            return permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package study.data_jpa.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 2차 캐시 region 별 설정 (application.yml 의 cache.second-level)
+ * region 이름 = 엔티티는 클래스 FQCN, 컬렉션은 FQCN + "." + 필드명
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "cache.second-level")
+public class SecondLevelCacheProperties {
+
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    @Getter @Setter
+    public static class Region {
+        private Duration ttl = Duration.ofMinutes(10); // 마지막 저장 후 만료 시간
+        private long maximumSize = 10_000; // 최대 엔트리 수, 넘으면 evict
+    }
+}
@@ -0,0 +1,38 @@
+package study.data_jpa.controller;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 2차 캐시 region 별 통계 (JCache 표준 CacheStatistics MBean 을 그대로 읽어서 보여줌)
+ */
+@RestController
+public class CacheStatsController {
+
+    private static final String[] ATTRIBUTES = {
+            "CacheHits", "CacheMisses", "CacheHitPercentage", "CachePuts", "CacheEvictions", "CacheRemovals"
+    };
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    @GetMapping("/cache/stats")
+    public Map<String, Map<String, Object>> stats() throws JMException {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        for (ObjectName name : mBeanServer.queryNames(new ObjectName("javax.cache:type=CacheStatistics,*"), null)) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (String attribute : ATTRIBUTES) {
+                values.put(attribute, mBeanServer.getAttribute(name, attribute));
+            }
+            result.put(name.getKeyProperty("Cache"), values);
+        }
+        return result;
+    }
+}
@@ -1,33 +1,110 @@
 package study.data_jpa.controller;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
-import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.data_jpa.datasource.PrimaryStickiness;
+import study.data_jpa.dto.MemberCursor;
 import study.data_jpa.dto.MemberDTO;
+import study.data_jpa.dto.MemberScrollDTO;
+import study.data_jpa.dto.MemberSearchCondition;
+import study.data_jpa.dto.MemberSearchDTO;
 import study.data_jpa.entity.Member;
+import study.data_jpa.entity.MemberView;
+import study.data_jpa.loader.BatchLoader;
+import study.data_jpa.loader.MemberLoader;
+import study.data_jpa.readmodel.MemberViewSync;
+import study.data_jpa.repository.MemberProjection;
 import study.data_jpa.repository.MemberRepository;
+import study.data_jpa.repository.MemberSearchRow;
+import study.data_jpa.repository.MemberSpec;
+import study.data_jpa.repository.MemberTeamSearchRow;
+import study.data_jpa.repository.MemberViewRepository;
+import study.data_jpa.repository.MemberViewSpec;
+import study.data_jpa.service.MemberExportService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 @RestController
-@RequiredArgsConstructor
 public class MemberController {
 
+    private static final int MAX_SCROLL_SIZE = 2000; // max-page-size 와 동일
+    private static final String COALESCED_HEADER = "X-Coalesced-Requests";
+
+    // 목록 정렬에 쓸 수 있는 속성 : 요청 속성 -> (Member jpql 경로, member_view / native projection 별칭)
+    // 조회 경로 (member_view 지연에 따라 바뀜) 와 상관없이 같은 요청이 같은 순서로 정렬되도록 두 방향 모두 받는다
+    private static final Map<String, SortProperty> SORT_PROPERTIES = Map.of(
+            "id", new SortProperty("id", "id"),
+            "username", new SortProperty("username", "username"),
+            "age", new SortProperty("age", "age"),
+            "team.name", new SortProperty("team.name", "teamName"),
+            "teamName", new SortProperty("team.name", "teamName"));
+
     private final MemberRepository memberRepository;
+    private final MemberExportService memberExportService;
+    private final MemberLoader memberLoader;
+    private final MemberViewRepository memberViewRepository;
+    private final MemberViewSync memberViewSync;
+    private final Counter viewReads;
+    private final Counter joinReads;
+
+    public MemberController(MemberRepository memberRepository,
+                            MemberExportService memberExportService,
+                            MemberLoader memberLoader,
+                            MemberViewRepository memberViewRepository,
+                            MemberViewSync memberViewSync,
+                            MeterRegistry meterRegistry) {
+        this.memberRepository = memberRepository;
+        this.memberExportService = memberExportService;
+        this.memberLoader = memberLoader;
+        this.memberViewRepository = memberViewRepository;
+        this.memberViewSync = memberViewSync;
+        this.viewReads = meterRegistry.counter("member.view.reads", "source", "view");
+        this.joinReads = meterRegistry.counter("member.view.reads", "source", "join");
+    }
 
+    // 동시에 들어온 id 조회는 MemberLoader 가 모아서 findAllById 한 번으로 처리
+    // X-Coalesced-Requests : 이 응답의 회원을 가져온 쿼리에 합쳐진 요청 수
     @GetMapping("/members/{id}")
-    public String findMember(@PathVariable("id") Long id) {
-        Member member = memberRepository.findById(id).get();
-        return member.getUsername();
+    public ResponseEntity<String> findMember(@PathVariable("id") Long id) {
+        return username(memberLoader.load(id));
     }
 
+    // 원래는 도메인 클래스 컨버터 (@PathVariable("id") Member member) 예제
+    // 컨버터는 요청마다 findById 를 따로 실행해서 합칠 수 없으므로 id 로 받아서 MemberLoader 사용
     @GetMapping("/members2/{id}")
-    public String findMember2(@PathVariable("id") Member member) {
-        return member.getUsername();
+    public ResponseEntity<String> findMember2(@PathVariable("id") Long id) {
+        return username(memberLoader.load(id));
+    }
+
+    private static ResponseEntity<String> username(BatchLoader.Loaded<MemberDTO> loaded) {
+        if (loaded.value() == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.ok()
+                .header(COALESCED_HEADER, String.valueOf(loaded.coalesced()))
+                .body(loaded.value().getUsername());
     }
 
     // @PostConstruct
@@ -39,14 +116,147 @@ public class MemberController {
 
     // @PageableDefault(size = 5, sort = "username") == 해당 메서드만 pageable setting 할 수 있음!!
     // 게시판에서 써먹자
+    // ?count=false 이면 count 쿼리 없이 Slice 로 반환 (무한 스크롤 화면용)
     @GetMapping("/members")
-    public Page<MemberDTO> list(@PageableDefault(size = 5, sort = "username") Pageable pageable) {
+    public Slice<MemberDTO> list(@PageableDefault(size = 5, sort = "username") Pageable pageable,
+                                 @RequestParam(value = "count", defaultValue = "true") boolean count) {
        /* Page<Member> page = memberRepository.findAll(pageable);
         return page.map(member ->
                 new MemberDTO(member.getId(), member.getUsername(), null));*/
-        PageRequest pageRequest = PageRequest.of(1, 2);
-        Page<MemberDTO> map = memberRepository.findAll(pageable)
+        Pageable joinPageable = sortFor(pageable, false); // 조회 경로와 상관없이 모르는 속성은 400
+        Pageable viewPageable = sortFor(pageable, true);
+        if (readFromView()) {
+            return count
+                    ? memberViewRepository.findMemberDto(viewPageable)
+                    : memberViewRepository.findSliceMemberDto(viewPageable);
+        }
+        if (!count) {
+            return memberRepository.findSliceBy(joinPageable)
+                    .map(MemberDTO::new);
+        }
+        Page<MemberDTO> map = memberRepository.findAll(joinPageable)
                 .map(MemberDTO::new);
         return map;
     }
+
+    @GetMapping("/members/age/{age}")
+    public Slice<MemberDTO> listByAge(@PathVariable("age") int age,
+                                      @PageableDefault(size = 5, sort = "username") Pageable pageable,
+                                      @RequestParam(value = "count", defaultValue = "true") boolean count) {
+        Pageable joinPageable = sortFor(pageable, false);
+        Slice<Member> result = count
+                ? memberRepository.findByAge(age, joinPageable)
+                : memberRepository.findSliceByAge(age, joinPageable);
+        return result.map(MemberDTO::new);
+    }
+
+    @GetMapping("/members/projection")
+    public Slice<MemberProjection> listProjection(@PageableDefault(size = 5) Pageable pageable,
+                                                  @RequestParam(value = "count", defaultValue = "true") boolean count) {
+        Pageable flattened = sortFor(pageable, true); // native 쿼리도 teamName 별칭으로 정렬
+        if (readFromView()) {
+            return count
+                    ? memberViewRepository.findProjection(flattened)
+                    : memberViewRepository.findSliceProjection(flattened);
+        }
+        return count
+                ? memberRepository.findByNativeProjection(flattened)
+                : memberRepository.findSliceByNativeProjection(flattened);
+    }
+
+    // keyset 페이징 : /members/scroll?size=20 -> 응답의 nextCursor 를 ?cursor= 로 넘겨서 다음 페이지 조회
+    // offset 을 쓰지 않기 때문에 몇 번째 페이지든 조회 속도가 같다
+    @GetMapping("/members/scroll")
+    public MemberScrollDTO scroll(@RequestParam(value = "cursor", required = false) String cursor,
+                                  @RequestParam(value = "size", defaultValue = "20") int size) {
+        int limit = Math.max(1, Math.min(size, MAX_SCROLL_SIZE));
+        ScrollPosition position;
+        try {
+            position = MemberCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        Window<Member> window = memberRepository.scroll(position, limit);
+
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            Member last = window.getContent().get(window.size() - 1);
+            nextCursor = MemberCursor.encode(last.getUsername(), last.getId());
+        }
+        return new MemberScrollDTO(window.map(MemberDTO::new).getContent(), nextCursor, window.hasNext());
+    }
+
+    // 동적 검색 : /members/search?username=&teamName=&ageGoe=&ageLoe=&withTeam=&cursor=&size=
+    // 조건마다 Specification 을 만들어서 and 로 묶고 (값이 없는 조건은 빠짐), 응답에 필요한 컬럼만 select
+    // team 은 팀 조건이 있거나 withTeam 일 때만 join, 페이징은 /members/scroll 과 같은 (username, id) 커서
+    @GetMapping("/members/search")
+    public MemberSearchDTO search(@ModelAttribute MemberSearchCondition condition,
+                                  @RequestParam(value = "cursor", required = false) String cursor,
+                                  @RequestParam(value = "size", defaultValue = "20") int size) {
+        int limit = Math.max(1, Math.min(size, MAX_SCROLL_SIZE));
+        ScrollPosition position;
+        try {
+            position = MemberCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        Class<?> type = condition.isWithTeam() ? MemberTeamSearchRow.class : MemberSearchRow.class;
+        Window<?> window;
+        if (readFromView()) {
+            Specification<MemberView> spec = Specification.where(MemberViewSpec.username(condition.getUsername()))
+                    .and(MemberViewSpec.teamName(condition.getTeamName()))
+                    .and(MemberViewSpec.ageGoe(condition.getAgeGoe()))
+                    .and(MemberViewSpec.ageLoe(condition.getAgeLoe()));
+            window = memberViewRepository.search(spec, type, position, limit);
+        } else {
+            Specification<Member> spec = Specification.where(MemberSpec.username(condition.getUsername()))
+                    .and(MemberSpec.teamName(condition.getTeamName()))
+                    .and(MemberSpec.ageGoe(condition.getAgeGoe()))
+                    .and(MemberSpec.ageLoe(condition.getAgeLoe()));
+            window = memberRepository.search(spec, type, position, limit);
+        }
+
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            Map<String, Object> keys = ((KeysetScrollPosition) window.positionAt(window.size() - 1)).getKeys();
+            nextCursor = MemberCursor.encode((String) keys.get("username"), (Long) keys.get("id"));
+        }
+        return new MemberSearchDTO(window.getContent(), nextCursor, window.hasNext());
+    }
+
+    // member_view 가 최신 (MemberViewSync.isFresh) 이면 join 없는 읽기 모델에서, 아니면 member + team join 쿼리로 조회
+    // 방금 member_view 에 영향을 주는 쓰기를 커밋한 요청 (MemberViewSync 가 PrimaryStickiness 표시) 은 자기 변경이 아직 반영 안 됐을 수 있으므로 join 쿼리
+    private boolean readFromView() {
+        if (memberViewSync.isFresh() && !PrimaryStickiness.isSticky()) {
+            viewReads.increment();
+            return true;
+        }
+        joinReads.increment();
+        return false;
+    }
+
+    // 요청 정렬을 조회 대상의 속성 이름으로 바꾼다 (flattened : member_view / native projection), 목록에 없는 속성은 400
+    private static Pageable sortFor(Pageable pageable, boolean flattened) {
+        if (pageable.getSort().isUnsorted()) {
+            return pageable;
+        }
+        List<Sort.Order> orders = new ArrayList<>();
+        for (Sort.Order order : pageable.getSort()) {
+            SortProperty property = SORT_PROPERTIES.get(order.getProperty());
+            if (property == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "정렬할 수 없는 속성입니다: " + order.getProperty());
+            }
+            orders.add(order.withProperty(flattened ? property.flattened() : property.join()));
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(orders));
+    }
+
+    private record SortProperty(String join, String flattened) {
+    }
+
+    // 전체 회원 export : 한 건씩 응답에 바로 써서 회원 수와 상관없이 메모리 사용량 일정
+    @GetMapping(value = "/members/export", produces = "application/x-ndjson")
+    public StreamingResponseBody export() {
+        return memberExportService::exportNdjson;
+    }
 }
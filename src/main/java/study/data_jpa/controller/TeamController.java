@@ -0,0 +1,25 @@
+package study.data_jpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.data_jpa.dto.TeamStatsDTO;
+import study.data_jpa.repository.TeamStatsRepository;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamStatsRepository teamStatsRepository;
+
+    // 회원 수 / 평균 나이 : member 를 집계하지 않고 team_stats pk 조회 한 번 (TeamStatsListener 가 미리 갱신)
+    @GetMapping("/teams/{id}/stats")
+    public TeamStatsDTO stats(@PathVariable("id") Long id) {
+        return teamStatsRepository.findById(id)
+                .map(TeamStatsDTO::new)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+}
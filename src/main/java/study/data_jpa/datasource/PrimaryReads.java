@@ -0,0 +1,40 @@
+package study.data_jpa.datasource;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * 캐시를 채우는 조회는 primary 에서 실행
+ * 복제본은 쓰기 트랜잭션이 캐시를 무효화한 뒤에도 예전 값을 돌려줄 수 있어서, 그 값을 캐시하면 ttl 동안 오래된 결과가 남는다.
+ * 현재 트랜잭션의 스냅샷 (REPEATABLE READ) 도 무효화 이전에 잡혔을 수 있으므로, 항상 primary 에 고정한 readOnly 트랜잭션 (REQUIRES_NEW) 을 따로 연다.
+ */
+@Component
+public class PrimaryReads {
+
+    private static final ThreadLocal<Boolean> forced = new ThreadLocal<>();
+
+    private final TransactionTemplate primaryTransaction;
+
+    public PrimaryReads(PlatformTransactionManager transactionManager) {
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.primaryTransaction.setReadOnly(true); // 쓰기 트랜잭션이면 커밋 후 primary 고정 (PrimaryStickiness) 이 걸린다
+    }
+
+    public <T> T fresh(Supplier<T> read) {
+        forced.set(Boolean.TRUE);
+        try {
+            return primaryTransaction.execute(status -> read.get());
+        } finally {
+            forced.remove();
+        }
+    }
+
+    static boolean isForced() {
+        return forced.get() != null;
+    }
+}
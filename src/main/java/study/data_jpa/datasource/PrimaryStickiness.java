@@ -0,0 +1,36 @@
+package study.data_jpa.datasource;
+
+import java.time.Duration;
+
+/**
+ * read-after-write : 쓰기를 커밋한 스레드는 복제 지연 동안 primary 에서 읽도록 표시
+ * member_view 에 영향을 주는 쓰기도 표시 (MemberViewSync) -> 반영 전까지 목록 / 검색은 join 쿼리
+ * 웹 요청은 PrimaryStickinessFilter 가 요청 끝에서 지우고, 그 밖의 스레드는 sticky-window 가 지나면 풀린다.
+ */
+public final class PrimaryStickiness {
+
+    private static final ThreadLocal<Long> stickyUntil = new ThreadLocal<>();
+
+    private PrimaryStickiness() {
+    }
+
+    public static void markWrite(Duration window) {
+        stickyUntil.set(System.nanoTime() + window.toNanos());
+    }
+
+    public static boolean isSticky() {
+        Long until = stickyUntil.get();
+        if (until == null) {
+            return false;
+        }
+        if (System.nanoTime() - until > 0) {
+            stickyUntil.remove();
+            return false;
+        }
+        return true;
+    }
+
+    public static void clear() {
+        stickyUntil.remove();
+    }
+}
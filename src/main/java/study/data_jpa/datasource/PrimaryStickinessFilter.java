@@ -0,0 +1,29 @@
+package study.data_jpa.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * primary 고정은 요청 안에서만 유지 (스레드가 다음 요청에 재사용되어도 넘어가지 않도록 앞뒤로 지운다)
+ * 라우팅을 켜지 않아도 member_view 의 read-after-write 표시 (MemberViewSync) 에 쓰이므로 항상 등록
+ */
+@Component
+public class PrimaryStickinessFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        PrimaryStickiness.clear();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            PrimaryStickiness.clear();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package study.data_jpa.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Transactional(readOnly = true) 는 복제본 (여러 개면 돌아가면서), 나머지는 primary
+ * readOnly 여부는 RoutingTransactionListener 가 트랜잭션 시작 전에 기록한 값 (TransactionReadOnly)
+ * 트랜잭션 밖의 접근은 primary, LazyConnectionDataSourceProxy 로 감싸서 실제 sql 이 없으면 커넥션을 잡지 않는다 (RoutingDataSourceConfig)
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final List<String> replicaKeys;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(List<String> replicaKeys) {
+        this.replicaKeys = replicaKeys;
+    }
+
+    // 지금 스레드의 트랜잭션이 커넥션을 잡으면 복제본으로 가는지 (라우팅을 켜지 않았으면 항상 false)
+    public static boolean routesToReplica() {
+        return TransactionReadOnly.isReadOnly() && !PrimaryStickiness.isSticky() && !PrimaryReads.isForced();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!routesToReplica()) {
+            return PRIMARY;
+        }
+        return replicaKeys.get(Math.floorMod(next.getAndIncrement(), replicaKeys.size()));
+    }
+}
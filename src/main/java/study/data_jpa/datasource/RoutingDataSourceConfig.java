@@ -0,0 +1,94 @@
+package study.data_jpa.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * datasource-routing.replicas 가 있을 때만 DataSource 를 직접 만든다 (없으면 스프링 부트 기본 DataSource 하나)
+ * primary / 복제본 풀은 빈으로 등록하지 않는다 -> p6spy 등 DataSource 데코레이터는 바깥의 라우팅 DataSource 에만 한 번 붙는다.
+ * open-in-view 로 EntityManager 가 요청 끝까지 열려 있어도 커넥션은 트랜잭션이 끝날 때마다 반납한다 -> 요청 안의 트랜잭션마다 따로 라우팅
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource-routing", name = "replicas[0].url")
+@EnableConfigurationProperties(RoutingDataSourceProperties.class)
+public class RoutingDataSourceConfig implements DisposableBean {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties dataSourceProperties,
+                                 RoutingDataSourceProperties routingProperties,
+                                 Environment environment) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReadWriteRoutingDataSource.PRIMARY,
+                pool(dataSourceProperties.initializeDataSourceBuilder(), "primary", false, environment));
+
+        List<String> replicaKeys = new ArrayList<>();
+        for (int i = 0; i < routingProperties.getReplicas().size(); i++) {
+            RoutingDataSourceProperties.Replica replica = routingProperties.getReplicas().get(i);
+            DataSourceBuilder<?> builder = DataSourceBuilder.create()
+                    .url(replica.getUrl())
+                    .username(replica.getUsername() != null ? replica.getUsername() : dataSourceProperties.determineUsername())
+                    .password(replica.getPassword() != null ? replica.getPassword() : dataSourceProperties.determinePassword());
+            String key = "replica-" + i;
+            targets.put(key, pool(builder, key, true, environment));
+            replicaKeys.add(key);
+        }
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(replicaKeys);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(targets.get(ReadWriteRoutingDataSource.PRIMARY));
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // 기본값 (DELAYED_ACQUISITION_AND_HOLD) 은 open-in-view 세션이 처음 잡은 커넥션을 요청 끝까지 들고 있어서
+    // readOnly 조회 다음의 쓰기가 복제본 커넥션으로 나간다
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransactionCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    public RoutingTransactionListener routingTransactionListener(RoutingDataSourceProperties routingProperties,
+                                                                 ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        return new RoutingTransactionListener(routingProperties, entityManagerFactory);
+    }
+
+    // spring.datasource.hikari.* 설정은 primary / 복제본 풀에 똑같이 적용
+    private HikariDataSource pool(DataSourceBuilder<?> builder, String name, boolean readOnly, Environment environment) {
+        HikariDataSource pool = builder.type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setReadOnly(readOnly);
+        pools.add(pool);
+        return pool;
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,31 @@
+package study.data_jpa.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 읽기 전용 복제본 목록 (datasource-routing.replicas) : 비어 있으면 라우팅하지 않고 spring.datasource 하나만 사용
+ */
+@Getter
+@Setter
+@ConfigurationProperties("datasource-routing")
+public class RoutingDataSourceProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    // 쓰기 트랜잭션 커밋 후 이 시간 동안은 같은 스레드의 읽기도 primary 로 (요청이 끝나면 바로 해제)
+    private Duration stickyWindow = Duration.ofSeconds(5);
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String url;
+        private String username; // 비우면 spring.datasource 와 같음
+        private String password;
+    }
+}
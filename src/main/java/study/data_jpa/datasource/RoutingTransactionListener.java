@@ -0,0 +1,81 @@
+package study.data_jpa.datasource;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 트랜잭션 시작 / 종료를 라우팅 상태에 반영
+ * - 시작 : readOnly 여부를 TransactionReadOnly 에 기록 (doBegin 전에 호출되므로 커넥션을 잡기 전에 알 수 있다)
+ * - 복제본으로 가는 트랜잭션 : 2차 캐시는 읽기만 (CacheMode.GET)
+ * - 읽기 / 쓰기 트랜잭션 커밋 : 이 스레드를 primary 에 고정
+ */
+@RequiredArgsConstructor
+public class RoutingTransactionListener implements TransactionExecutionListener {
+
+    private final RoutingDataSourceProperties properties;
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    @Override
+    public void beforeBegin(TransactionExecution transaction) {
+        TransactionReadOnly.push(transaction.isReadOnly());
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure != null) {
+            TransactionReadOnly.pop();
+            return;
+        }
+        if (transaction.isNewTransaction() && ReadWriteRoutingDataSource.routesToReplica()) {
+            skipSecondLevelCachePut();
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (!transaction.isNewTransaction()) {
+            return;
+        }
+        TransactionReadOnly.pop();
+        if (commitFailure == null && !transaction.isReadOnly()) {
+            PrimaryStickiness.markWrite(properties.getStickyWindow());
+        }
+    }
+
+    @Override
+    public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+        if (transaction.isNewTransaction()) {
+            TransactionReadOnly.pop();
+        }
+    }
+
+    // 복제본에서 읽은 (지연된) 엔티티 / 컬렉션을 2차 캐시에 넣으면 쓰기 트랜잭션이 evict 한 자리가 예전 값으로 다시 채워진다
+    // open-in-view 세션은 요청 안의 다음 트랜잭션에서도 쓰이므로 트랜잭션이 끝나면 원래 CacheMode 로 되돌린다
+    private void skipSecondLevelCachePut() {
+        EntityManagerFactory emf = entityManagerFactory.getIfAvailable();
+        EntityManagerHolder holder = emf == null ? null
+                : (EntityManagerHolder) TransactionSynchronizationManager.getResource(emf);
+        if (holder == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Session session = holder.getEntityManager().unwrap(Session.class);
+        CacheMode previous = session.getCacheMode();
+        session.setCacheMode(CacheMode.GET);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (session.isOpen()) {
+                    session.setCacheMode(previous);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,35 @@
+package study.data_jpa.datasource;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 현재 스레드에서 진행 중인 (새로 시작한) 트랜잭션들의 readOnly 여부 스택
+ * TransactionSynchronizationManager.isCurrentTransactionReadOnly() 는 doBegin 이 끝난 뒤에야 설정되는데,
+ * HibernateJpaDialect 는 readOnly 트랜잭션을 시작하면서 바로 커넥션을 잡으므로 (p6spy 도 getConnection 에서 getMetaData 호출)
+ * 그 시점에 라우팅하려면 beforeBegin 에서 따로 기록해 두어야 한다. REQUIRES_NEW 로 중첩될 수 있어서 스택.
+ */
+final class TransactionReadOnly {
+
+    private static final ThreadLocal<Deque<Boolean>> stack = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private TransactionReadOnly() {
+    }
+
+    static void push(boolean readOnly) {
+        stack.get().push(readOnly);
+    }
+
+    static void pop() {
+        Deque<Boolean> deque = stack.get();
+        deque.poll();
+        if (deque.isEmpty()) {
+            stack.remove();
+        }
+    }
+
+    static boolean isReadOnly() {
+        Boolean readOnly = stack.get().peek();
+        return readOnly != null && readOnly;
+    }
+}
@@ -0,0 +1,53 @@
+package study.data_jpa.dto;
+
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * keyset 페이징 커서
+ * (username, member_id) 를 "id:username" 형태로 묶어 base64 로 감싼다. 클라이언트는 내용을 몰라도 된다.
+ * username 이 null 이면 구분자 없이 "id" (빈 문자열 username 과 구분, null 은 정렬 맨 앞 -> MemberSearchRepositoryImpl.keysetAfter)
+ */
+public class MemberCursor {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private MemberCursor() {
+    }
+
+    public static String encode(String username, Long id) {
+        String raw = username == null ? String.valueOf(id) : id + ":" + username;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 커서가 없으면 첫 페이지
+    public static ScrollPosition decode(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return ScrollPosition.keyset();
+        }
+        String raw;
+        try {
+            raw = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("잘못된 커서 입니다: " + cursor, e);
+        }
+        int separator = raw.indexOf(':');
+        Long id;
+        try {
+            id = Long.valueOf(separator < 0 ? raw : raw.substring(0, separator));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("잘못된 커서 입니다: " + cursor, e);
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>(); // username 이 null 일 수 있어서 Map.of 대신
+        keys.put("username", separator < 0 ? null : raw.substring(separator + 1));
+        keys.put("id", id);
+        return ScrollPosition.forward(keys);
+    }
+}
@@ -0,0 +1,19 @@
+package study.data_jpa.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class MemberScrollDTO {
+
+    private List<MemberDTO> content;
+    private String nextCursor; // 다음 페이지 요청 시 그대로 넘겨주면 됨 (마지막 페이지면 null)
+    private boolean hasNext;
+
+    public MemberScrollDTO(List<MemberDTO> content, String nextCursor, boolean hasNext) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+    }
+}
@@ -0,0 +1,16 @@
+package study.data_jpa.dto;
+
+import lombok.Data;
+
+/**
+ * /members/search 조건 : 값이 없는 조건은 무시
+ */
+@Data
+public class MemberSearchCondition {
+
+    private String username;
+    private String teamName;
+    private Integer ageGoe;
+    private Integer ageLoe;
+    private boolean withTeam; // 결과에 팀 이름 포함 (팀 조건이 없으면 이때만 team join)
+}
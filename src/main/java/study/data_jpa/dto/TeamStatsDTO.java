@@ -0,0 +1,18 @@
+package study.data_jpa.dto;
+
+import lombok.Data;
+import study.data_jpa.entity.TeamStats;
+
+@Data
+public class TeamStatsDTO {
+
+    private Long teamId;
+    private long memberCount;
+    private double averageAge;
+
+    public TeamStatsDTO(TeamStats stats) {
+        this.teamId = stats.getTeamId();
+        this.memberCount = stats.getMemberCount();
+        this.averageAge = stats.getAverageAge();
+    }
+}
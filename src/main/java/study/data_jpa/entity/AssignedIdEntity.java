@@ -0,0 +1,38 @@
+package study.data_jpa.entity;
+
+import jakarta.persistence.MappedSuperclass;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * id 를 직접 넣는 (@GeneratedValue 없는) 엔티티의 공통 부모
+ * SimpleJpaRepository.save 는 id 가 있으면 기존 엔티티로 보고 merge (select 후 insert) 하므로
+ * createdDate 가 아직 없으면 새 엔티티로 알려서 바로 persist 하게 한다. createdDate 는 insert 되는 flush 에서 AuditStampListener 가 채운다.
+ * 대량 저장은 엔티티를 거치지 않는 jdbc 배치 (ItemBulkRepository 등) 를 사용
+ */
+@MappedSuperclass
+public abstract class AssignedIdEntity<ID> implements Persistable<ID>, AuditStamped {
+
+    @CreatedDate
+    private LocalDateTime createdDate;
+
+    public LocalDateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    @Override
+    public boolean isNew() { // createdDate 가 null 이면 new 객체
+        return createdDate == null;
+    }
+
+    @Override
+    public void stampCreated(String auditor, LocalDateTime now) {
+        createdDate = now;
+    }
+
+    @Override
+    public void stampModified(String auditor, LocalDateTime now) {
+    }
+}
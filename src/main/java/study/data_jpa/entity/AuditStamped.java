@@ -0,0 +1,18 @@
+package study.data_jpa.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * AuditStampListener 가 insert / update 직전에 호출 (리플렉션 없이 직접 필드 대입)
+ * 값을 넣는 필드에는 @CreatedDate / @LastModifiedDate / @CreatedBy / @LastModifiedBy 를 붙인다
+ * -> 리스너가 엔티티 타입마다 한 번만 읽어서 insert / update 할 컬럼 값 위치를 찾는다.
+ */
+public interface AuditStamped {
+
+    /**
+     * @param auditor 등록자 필드가 없는 엔티티면 조회하지 않고 null
+     */
+    void stampCreated(String auditor, LocalDateTime now);
+
+    void stampModified(String auditor, LocalDateTime now);
+}
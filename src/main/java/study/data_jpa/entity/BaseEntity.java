@@ -1,19 +1,13 @@
 package study.data_jpa.entity;
 
 import jakarta.persistence.Column;
-import jakarta.persistence.Entity;
-import jakarta.persistence.EntityListeners;
 import jakarta.persistence.MappedSuperclass;
 import lombok.Getter;
 import org.springframework.data.annotation.CreatedBy;
-import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
-import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
 
-@EntityListeners(AuditingEntityListener.class)
 @MappedSuperclass
 @Getter
 public class BaseEntity extends BaseTimeEntity {
@@ -25,4 +19,17 @@ public class BaseEntity extends BaseTimeEntity {
 
     @LastModifiedBy
     private String lastModifiedBy;
+
+    @Override
+    public void stampCreated(String auditor, LocalDateTime now) {
+        super.stampCreated(auditor, now);
+        createBy = auditor;
+        lastModifiedBy = auditor;
+    }
+
+    @Override
+    public void stampModified(String auditor, LocalDateTime now) {
+        super.stampModified(auditor, now);
+        lastModifiedBy = auditor;
+    }
 }
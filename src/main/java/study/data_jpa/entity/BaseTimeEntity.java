@@ -1,21 +1,17 @@
 package study.data_jpa.entity;
 
 import jakarta.persistence.Column;
-import jakarta.persistence.EntityListeners;
 import jakarta.persistence.MappedSuperclass;
 import lombok.Getter;
-import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
-import org.springframework.data.annotation.LastModifiedBy;
 import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
 
-@EntityListeners(AuditingEntityListener.class)
+// 스프링 데이터 auditing 어노테이션은 그대로, 값은 AuditingEntityListener 대신 AuditStampListener 가 넣는다
 @MappedSuperclass
 @Getter
-public class BaseTimeEntity {
+public class BaseTimeEntity implements AuditStamped {
 
     @CreatedDate
     @Column(updatable = false)
@@ -23,4 +19,15 @@ public class BaseTimeEntity {
 
     @LastModifiedDate
     private LocalDateTime lastModifiedDate;
+
+    @Override
+    public void stampCreated(String auditor, LocalDateTime now) {
+        createdDate = now;
+        lastModifiedDate = now;
+    }
+
+    @Override
+    public void stampModified(String auditor, LocalDateTime now) {
+        lastModifiedDate = now;
+    }
 }
@@ -0,0 +1,46 @@
+package study.data_jpa.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import static lombok.AccessLevel.PROTECTED;
+
+/**
+ * 청크 단위 대량 작업의 진행 상황 (체크포인트)
+ * 청크 update 와 같은 트랜잭션에서 갱신되므로 중간에 죽어도 커밋된 청크까지만 반영된 상태로 남는다
+ * -> 같은 이름으로 다시 실행하면 lastId 다음부터 이어서 처리
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = PROTECTED)
+@ToString(of = {"name", "parameter", "lastId", "processed", "chunks", "completed"})
+public class BulkJob extends JpaBaseEntity {
+
+    @Id
+    @Column(name = "job_name")
+    private String name;
+    private String parameter; // 재시작 시 같은 조건으로 이어가는지 확인용
+    private long lastId;      // 마지막으로 처리한 청크의 끝 id (포함)
+    private long processed;   // 실제로 변경된 row 수
+    private int chunks;
+    private boolean completed;
+
+    public BulkJob(String name, String parameter) {
+        this.name = name;
+        this.parameter = parameter;
+    }
+
+    public void advance(long lastId, int updated) {
+        this.lastId = lastId;
+        this.processed += updated;
+        this.chunks++;
+    }
+
+    public void complete() {
+        this.completed = true;
+    }
+}
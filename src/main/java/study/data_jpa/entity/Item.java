@@ -1,40 +1,27 @@
 package study.data_jpa.entity;
 
 import jakarta.persistence.Entity;
-import jakarta.persistence.EntityListeners;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
-import org.springframework.data.annotation.CreatedDate;
-import org.springframework.data.domain.Persistable;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
-
-import java.time.LocalDateTime;
 
 @Entity
+@Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
-@EntityListeners(AuditingEntityListener.class)
-public class Item implements Persistable<String> {
+public class Item extends AssignedIdEntity<String> {
 
     @Id
     private String id;
 
-    @CreatedDate
-    private LocalDateTime createdDate;
+    private String name;
 
     public Item(String id) {
         this.id = id;
     }
 
-    @Override
-    public String getId() {
-        return id;
-    }
-
-    @Override
-    public boolean isNew() { // createdDate 가 null 이면 new 객체
-        return createdDate == null;
+    public Item(String id, String name) {
+        this.id = id;
+        this.name = name;
     }
 }
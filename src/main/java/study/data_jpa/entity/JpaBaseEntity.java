@@ -3,29 +3,31 @@ package study.data_jpa.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.MappedSuperclass;
-import jakarta.persistence.PrePersist;
-import jakarta.persistence.PreUpdate;
 import lombok.Getter;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
 
 import java.time.LocalDateTime;
 
+// 원래는 @PrePersist / @PreUpdate 콜백 (엔티티마다 리플렉션 호출 + 시계 조회) -> AuditStampListener 가 flush 단위로 한 번 읽은 시각을 넣는다
 @MappedSuperclass
 @Getter
-public class JpaBaseEntity {
+public class JpaBaseEntity implements AuditStamped {
 
+    @CreatedDate
     @Column(updatable = false)
     private LocalDateTime createdDate;
+    @LastModifiedDate
     private LocalDateTime updatedDate;
 
-    @PrePersist
-    public void perPersist() {
-        LocalDateTime now = LocalDateTime.now();
+    @Override
+    public void stampCreated(String auditor, LocalDateTime now) {
         createdDate = now;
         updatedDate = now;
     }
 
-    @PreUpdate
-    public void preUpdate() {
-       updatedDate = LocalDateTime.now();
+    @Override
+    public void stampModified(String auditor, LocalDateTime now) {
+       updatedDate = now;
     }
 }
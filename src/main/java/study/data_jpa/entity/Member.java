@@ -3,8 +3,13 @@ package study.data_jpa.entity;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
+import java.time.LocalDateTime;
+
 import static jakarta.persistence.FetchType.*;
 import static jakarta.persistence.GenerationType.*;
 import static lombok.AccessLevel.*;
@@ -19,11 +24,20 @@ import static lombok.AccessLevel.*;
 )
 @NamedEntityGraph(name = "Member.all", attributeNodes = @NamedAttributeNode("team"))
 @JsonPropertyOrder({ "id", "username", "age", "team" })
+@Table(indexes = @Index(name = "idx_member_username_id", columnList = "username, member_id")) // keyset 페이징 정렬 키
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // username 조회 시 id 목록 캐시 + 엔티티는 2차 캐시에서 조회
 public class Member{
 
-    @Id @GeneratedValue(strategy = IDENTITY)
+    // IDENTITY 는 insert 배치가 꺼지므로 sequence (pooled) 사용, MySQL 에서는 member_seq 테이블로 대체됨
+    @Id @GeneratedValue(strategy = SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)
     @Column(name = "member_id")
-    private Long Id;
+    private Long id;
+
+    // 낙관적 락 : update 시 where version = ? 로 동시 수정을 검출 (벌크 update 도 같이 올린다)
+    @Version
+    private long version;
 
     private String username;
     private int age;
@@ -32,6 +46,10 @@ public class Member{
     @JoinColumn(name = "team_id")
     private Team team;
 
+    // 작업 큐 lease (MemberWorkQueueRepository) : 처리 중인 워커와 만료 시각, 만료되면 다른 워커가 다시 가져갈 수 있다
+    private String leaseOwner;
+    private LocalDateTime leaseExpiresAt;
+
     public Member(String username) {
         this.username = username;
     }
@@ -49,9 +67,22 @@ public class Member{
         this.age = age;
     }
 
-    // 팀을 변경 하는 메서드
+    // 팀을 변경 하는 메서드 : 양쪽 팀의 members 컬렉션은 초기화하지 않는다 (소속은 team fk 가 관리)
     public void changeTeam(Team team) {
+        if (this.team != null && Hibernate.isInitialized(this.team)) { // 예전 팀이 프록시면 로딩하지 않음
+            this.team.removeMember(this);
+        }
         this.team = team;
-        team.getMembers().add(this);
+        team.addMember(this);
+    }
+
+    public void lease(String owner, LocalDateTime expiresAt) {
+        this.leaseOwner = owner;
+        this.leaseExpiresAt = expiresAt;
+    }
+
+    public void releaseLease() {
+        this.leaseOwner = null;
+        this.leaseExpiresAt = null;
     }
 }
@@ -0,0 +1,39 @@
+package study.data_jpa.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import static lombok.AccessLevel.*;
+
+/**
+ * 목록 / 검색용 읽기 모델 : member + team.name 을 한 row 로 비정규화 (조회 시 join 없음)
+ * MemberViewSync 가 커밋된 변경을 모아서 비동기로 반영하므로 원본보다 늦을 수 있다 -> 지연이 크면 조회는 join 쿼리로 대체
+ */
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor(access = PROTECTED)
+@ToString
+@Table(name = "member_view", indexes = {
+        @Index(name = "idx_member_view_username_id", columnList = "username, member_id"), // keyset 정렬 키
+        @Index(name = "idx_member_view_team_name", columnList = "team_name, username, member_id"), // 팀 이름 검색 + 정렬
+        @Index(name = "idx_member_view_team_id", columnList = "team_id") // 팀 이름 변경 반영
+})
+public class MemberView {
+
+    @Id
+    @Column(name = "member_id")
+    private Long id;
+
+    private String username;
+    private int age;
+    private Long teamId;
+    private String teamName;
+}
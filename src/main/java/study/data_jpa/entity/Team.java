@@ -2,6 +2,12 @@ package study.data_jpa.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
+import org.hibernate.collection.spi.AbstractPersistentCollection;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -13,17 +19,50 @@ import static lombok.AccessLevel.*;
 @Getter @Setter
 @NoArgsConstructor(access = PROTECTED)
 @ToString(of = {"id", "name"})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 팀은 거의 변경되지 않으므로 2차 캐시에 올려둠
+@BatchSize(size = 100) // member.getTeam() 지연 로딩 시 팀 프록시 100 개씩 in 절로 한번에 초기화
 public class Team extends JpaBaseEntity {
 
-    @Id @GeneratedValue(strategy = IDENTITY)
+    @Id @GeneratedValue(strategy = SEQUENCE, generator = "team_seq_generator")
+    @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 50)
     @Column(name = "team_id")
     private Long id;
+
+    @Version
+    private long version;
     private String name;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 소속 회원 id 목록 캐시
+    @BatchSize(size = 100) // 여러 팀의 members 컬렉션을 100 개씩 한번에 초기화
+    @OptimisticLock(excluded = true) // 소속은 Member.team (fk) 이 관리 -> 회원이 들어오고 나갈 때마다 팀 version 이 올라가서 충돌하지 않도록
     @OneToMany(mappedBy = "team") // 양방향 관계 일 때 mappedBy 적용 = 실제 db 테이블에 외래키가 없는 엔티티쪽에 mappedBy 를 걸어준다.
     private List<Member> members = new ArrayList<>();
 
     public Team(String name) {
         this.name = name;
     }
+
+    /**
+     * 회원 추가 (Member.changeTeam 에서 호출) : 아직 로딩되지 않은 members 는 초기화하지 않는다.
+     * 영속 상태면 hibernate 가 add 를 큐에 쌓아 두었다가 컬렉션이 초기화될 때 반영 (mappedBy 쪽이라 sql 없음)
+     * 준영속이면 초기화할 수 없으므로 건너뛴다.
+     */
+    void addMember(Member member) {
+        if (Hibernate.isInitialized(members) || isConnected(members)) {
+            members.add(member);
+        }
+    }
+
+    // bag 의 remove 는 항상 컬렉션을 초기화하므로 이미 로딩된 경우에만 뺀다
+    void removeMember(Member member) {
+        if (Hibernate.isInitialized(members)) {
+            members.remove(member);
+        }
+    }
+
+    private static boolean isConnected(List<Member> members) {
+        return members instanceof AbstractPersistentCollection<?> collection
+                && collection.getSession() != null && collection.getSession().isOpen();
+    }
 }
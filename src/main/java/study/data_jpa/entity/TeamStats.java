@@ -0,0 +1,35 @@
+package study.data_jpa.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import static lombok.AccessLevel.*;
+
+/**
+ * 팀별 집계 (회원 수, 나이 합) : member 를 훑지 않고 pk 조회 한 번으로 읽는다.
+ * 값은 엔티티로 수정하지 않고 TeamStatsListener (flush 마다 팀별 증감) / 벌크 update 의 증감 sql 로만 바뀐다.
+ * 어긋난 값은 TeamStatsReconciler 가 전체 재계산과 비교해서 바로잡는다.
+ */
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor(access = PROTECTED)
+@ToString
+public class TeamStats {
+
+    @Id
+    @Column(name = "team_id")
+    private Long teamId; // team 과 fk 는 두지 않음 (팀 삭제 / 증감 반영 순서에 묶이지 않도록)
+
+    private long memberCount;
+    private long ageSum;
+
+    public double getAverageAge() {
+        return memberCount == 0 ? 0 : (double) ageSum / memberCount;
+    }
+}
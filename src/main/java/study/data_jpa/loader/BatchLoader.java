@@ -0,0 +1,166 @@
+package study.data_jpa.loader;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * DataLoader 방식의 요청 합치기 : window 동안 (또는 키가 maxBatchSize 개 모일 때까지) 들어온 load 를 모아서 batchFunction 한 번으로 조회
+ * 같은 키를 여러 요청이 기다리면 한 번만 조회해서 같은 값을 나눠준다. batchFunction 결과에 없는 키는 null.
+ * batchFunction 은 가상 스레드에서 실행하고, 동시에 실행되는 batch 는 maxConcurrentBatches 개 이하 (= db 커넥션 수)
+ *
+ * 메트릭 (tag name)
+ * - loader.requests : load 호출 수
+ * - loader.batches : batchFunction 호출 수 -> requests / batches 가 평균 합쳐진 요청 수
+ * - loader.batch.requests : batch 하나에 합쳐진 요청 수 분포
+ * - loader.pending : 아직 조회를 시작하지 않은 batch 에 모인 요청 수
+ */
+public class BatchLoader<K, V> implements AutoCloseable {
+
+    /**
+     * @param coalesced 이 값을 가져온 batch 에 합쳐진 요청 수 (자기 자신 포함)
+     */
+    public record Loaded<V>(V value, int coalesced) {
+    }
+
+    private final Function<Set<K>, Map<K, V>> batchFunction;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final Semaphore concurrentBatches;
+    private final ScheduledExecutorService timer;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ReentrantLock lock = new ReentrantLock(); // 가상 스레드가 carrier 를 붙잡지 않도록 synchronized 대신 사용
+    private final Counter requests;
+    private final Counter batches;
+    private final DistributionSummary batchRequests;
+
+    private Batch<K, V> current;
+
+    public BatchLoader(String name, Function<Set<K>, Map<K, V>> batchFunction,
+                       Duration window, int maxBatchSize, int maxConcurrentBatches, MeterRegistry meterRegistry) {
+        if (maxBatchSize < 1 || maxConcurrentBatches < 1) {
+            throw new IllegalArgumentException("maxBatchSize / maxConcurrentBatches must be positive");
+        }
+        this.batchFunction = batchFunction;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.concurrentBatches = new Semaphore(maxConcurrentBatches, true);
+        this.timer = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name(name + "-timer").factory());
+        this.requests = meterRegistry.counter("loader.requests", "name", name);
+        this.batches = meterRegistry.counter("loader.batches", "name", name);
+        this.batchRequests = DistributionSummary.builder("loader.batch.requests").tag("name", name).register(meterRegistry);
+        Gauge.builder("loader.pending", this, BatchLoader::pending).tag("name", name).register(meterRegistry);
+    }
+
+    /**
+     * 값이 올 때까지 대기 (batchFunction 이 던진 예외는 그대로 다시 던진다)
+     */
+    public Loaded<V> load(K key) {
+        try {
+            return loadAsync(key).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<Loaded<V>> loadAsync(K key) {
+        requests.increment();
+        Batch<K, V> batch;
+        CompletableFuture<V> future;
+        boolean full;
+        lock.lock();
+        try {
+            if (current == null) {
+                Batch<K, V> created = new Batch<>();
+                current = created;
+                timer.schedule(() -> dispatch(created), window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            batch = current;
+            future = batch.futures.computeIfAbsent(key, k -> new CompletableFuture<>());
+            batch.requests++;
+            full = batch.futures.size() >= maxBatchSize;
+        } finally {
+            lock.unlock();
+        }
+        if (full) {
+            dispatch(batch);
+        }
+        return future.thenApply(value -> new Loaded<>(value, batch.requests));
+    }
+
+    private int pending() {
+        lock.lock();
+        try {
+            return current == null ? 0 : current.requests;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // window 만료 (timer) 와 maxBatchSize 도달 (요청 스레드) 중 먼저 온 쪽만 실행
+    private void dispatch(Batch<K, V> batch) {
+        lock.lock();
+        try {
+            if (batch.dispatched) {
+                return;
+            }
+            batch.dispatched = true; // 이후로는 requests / futures 가 바뀌지 않는다
+            if (current == batch) {
+                current = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        batches.increment();
+        batchRequests.record(batch.requests);
+        executor.execute(() -> run(batch));
+    }
+
+    private void run(Batch<K, V> batch) {
+        try {
+            concurrentBatches.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            batch.futures.values().forEach(f -> f.completeExceptionally(e));
+            return;
+        }
+        try {
+            Map<K, V> values = batchFunction.apply(batch.futures.keySet());
+            batch.futures.forEach((key, future) -> future.complete(values.get(key)));
+        } catch (Throwable e) {
+            batch.futures.values().forEach(f -> f.completeExceptionally(e));
+        } finally {
+            concurrentBatches.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        executor.close(); // 실행 중인 batch 는 끝까지 기다린다
+    }
+
+    private static final class Batch<K, V> {
+        private final Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        private int requests;
+        private boolean dispatched;
+    }
+}
@@ -0,0 +1,53 @@
+package study.data_jpa.loader;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_jpa.dto.MemberDTO;
+import study.data_jpa.entity.Member;
+import study.data_jpa.repository.MemberRepository;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * id 로 회원 한 명 조회 (GET /members/{id}) 를 모아서 findAllById 한 번으로 처리
+ * batch 는 요청 스레드와 다른 스레드의 readOnly 트랜잭션에서 실행되므로 엔티티 대신 DTO 로 돌려준다
+ * (같은 id 를 기다린 요청들이 같은 값을 나눠 가지므로 변경 가능한 영속 엔티티를 공유하지 않기 위해서도)
+ */
+@Component
+public class MemberLoader implements DisposableBean {
+
+    private final BatchLoader<Long, MemberDTO> loader;
+
+    public MemberLoader(MemberRepository memberRepository,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${member-loader.window:2ms}") Duration window,
+                        @Value("${member-loader.max-batch-size:100}") int maxBatchSize,
+                        @Value("${member-loader.max-concurrent-batches:4}") int maxConcurrentBatches) {
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        this.loader = new BatchLoader<>("member", (Set<Long> ids) -> readOnlyTransaction.execute(status ->
+                memberRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(Member::getId, MemberDTO::new))),
+                window, maxBatchSize, maxConcurrentBatches, meterRegistry);
+    }
+
+    /**
+     * @return 없는 id 면 value 가 null
+     */
+    public BatchLoader.Loaded<MemberDTO> load(Long id) {
+        return loader.load(id);
+    }
+
+    @Override
+    public void destroy() {
+        loader.close();
+    }
+}
@@ -0,0 +1,60 @@
+package study.data_jpa.monitor;
+
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 한 구간(HTTP 요청 / 트랜잭션 / 테스트 메서드) 동안 실행된 sql 통계
+ */
+@Getter
+public class SqlStats {
+
+    private final String scope; // request, transaction, test
+    private final String name; // url 패턴, 트랜잭션 이름 등
+    private int statements;
+    private long elapsedNanos;
+    private long rows;
+    private final Map<String, Integer> shapes = new LinkedHashMap<>(); // sql 모양 -> 실행 횟수
+
+    public SqlStats(String scope, String name) {
+        this.scope = scope;
+        this.name = name;
+    }
+
+    void recordStatement(String sql, long nanos) {
+        statements++;
+        elapsedNanos += nanos;
+        if (sql != null) {
+            shapes.merge(shape(sql), 1, Integer::sum);
+        }
+    }
+
+    void recordRow() {
+        rows++;
+    }
+
+    /**
+     * 같은 모양의 sql 이 threshold 번 이상 실행된 경우 (N + 1 의심)
+     */
+    public Map<String, Integer> repeatedShapes(int threshold) {
+        return shapes.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    public int maxRepeats() {
+        return shapes.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    private static String shape(String sql) {
+        return sql.replaceAll("\\s+", " ").trim();
+    }
+
+    @Override
+    public String toString() {
+        return scope + "[" + name + "] statements=" + statements + ", time=" + elapsedNanos / 1_000_000 + "ms, rows=" + rows;
+    }
+}
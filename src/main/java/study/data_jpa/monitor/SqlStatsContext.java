@@ -0,0 +1,51 @@
+package study.data_jpa.monitor;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 현재 쓰레드에서 열려있는 sql 통계 구간들 (요청 > 트랜잭션 처럼 중첩 가능)
+ * 실행된 sql 은 열려있는 모든 구간에 기록된다.
+ */
+public final class SqlStatsContext {
+
+    private static final ThreadLocal<Deque<SqlStats>> scopes = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private SqlStatsContext() {
+    }
+
+    public static SqlStats open(String scope, String name) {
+        SqlStats stats = new SqlStats(scope, name);
+        scopes.get().push(stats);
+        return stats;
+    }
+
+    /**
+     * 가장 안쪽 구간이 주어진 구간이면 닫는다 (짝이 맞지 않는 close 는 무시)
+     */
+    public static void close(SqlStats stats) {
+        Deque<SqlStats> current = scopes.get();
+        if (current.peek() == stats) {
+            current.pop();
+        }
+        if (current.isEmpty()) {
+            scopes.remove();
+        }
+    }
+
+    public static SqlStats current() {
+        return scopes.get().peek();
+    }
+
+    static void recordStatement(String sql, long nanos) {
+        for (SqlStats stats : scopes.get()) {
+            stats.recordStatement(sql, nanos);
+        }
+    }
+
+    static void recordRow() {
+        for (SqlStats stats : scopes.get()) {
+            stats.recordRow();
+        }
+    }
+}
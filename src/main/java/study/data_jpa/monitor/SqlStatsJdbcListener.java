@@ -0,0 +1,28 @@
+package study.data_jpa.monitor;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 이벤트 리스너 : 실행된 sql / 소요 시간 / 조회 row 수를 현재 구간에 기록
+ * (p6spy-spring-boot-starter 가 JdbcEventListener 빈을 자동으로 등록)
+ */
+@Component
+public class SqlStatsJdbcListener extends SimpleJdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        SqlStatsContext.recordStatement(statementInformation.getSql(), timeElapsedNanos);
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext, SQLException e) {
+        if (hasNext) {
+            SqlStatsContext.recordRow();
+        }
+    }
+}
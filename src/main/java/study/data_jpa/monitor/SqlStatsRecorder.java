@@ -0,0 +1,56 @@
+package study.data_jpa.monitor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 구간이 끝날 때 micrometer 지표 기록 + 같은 sql 반복 (N + 1) 경고
+ */
+@Slf4j
+@Component
+public class SqlStatsRecorder {
+
+    private final MeterRegistry meterRegistry;
+    private final int repeatThreshold;
+
+    public SqlStatsRecorder(MeterRegistry meterRegistry,
+                            @Value("${sql-stats.repeat-threshold:5}") int repeatThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    public int getRepeatThreshold() {
+        return repeatThreshold;
+    }
+
+    public void record(SqlStats stats) {
+        record(stats, stats.getName());
+    }
+
+    public void record(SqlStats stats, String name) {
+        String[] tags = {"scope", stats.getScope(), "name", name};
+
+        DistributionSummary.builder("db.sql.statements").tags(tags)
+                .description("구간당 실행된 sql 수").register(meterRegistry)
+                .record(stats.getStatements());
+        DistributionSummary.builder("db.sql.rows").tags(tags)
+                .description("구간당 조회된 row 수").register(meterRegistry)
+                .record(stats.getRows());
+        Timer.builder("db.sql.time").tags(tags)
+                .description("구간당 db 실행 시간 합계").register(meterRegistry)
+                .record(stats.getElapsedNanos(), TimeUnit.NANOSECONDS);
+
+        Map<String, Integer> repeated = stats.repeatedShapes(repeatThreshold);
+        if (!repeated.isEmpty()) {
+            meterRegistry.counter("db.sql.repeated", tags).increment();
+            repeated.forEach((sql, count) -> log.warn("N + 1 의심 {} : 같은 sql {} 번 실행 - {}", stats, count, sql));
+        }
+    }
+}
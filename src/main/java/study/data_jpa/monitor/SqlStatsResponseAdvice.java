@@ -0,0 +1,43 @@
+package study.data_jpa.monitor;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * 응답 body 를 쓰기 직전에 현재 요청의 sql 통계를 응답 헤더로 추가
+ * (body 직렬화 중에 일어나는 지연 로딩 sql 은 헤더에는 빠지고 지표에는 포함됨)
+ */
+@RestControllerAdvice
+@RequiredArgsConstructor
+public class SqlStatsResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    private final SqlStatsRecorder recorder;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStats stats = SqlStatsContext.current();
+        if (stats != null) {
+            response.getHeaders().set("X-Sql-Count", String.valueOf(stats.getStatements()));
+            response.getHeaders().set("X-Sql-Time-Ms", String.valueOf(stats.getElapsedNanos() / 1_000_000));
+            response.getHeaders().set("X-Sql-Rows", String.valueOf(stats.getRows()));
+            response.getHeaders().set("X-Sql-Max-Repeats", String.valueOf(stats.maxRepeats()));
+            if (!stats.repeatedShapes(recorder.getRepeatThreshold()).isEmpty()) {
+                response.getHeaders().set("X-Sql-N-Plus-One", "suspected");
+            }
+        }
+        return body;
+    }
+}
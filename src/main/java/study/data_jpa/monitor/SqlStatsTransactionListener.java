@@ -0,0 +1,52 @@
+package study.data_jpa.monitor;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * @Transactional (새 트랜잭션) 단위 sql 통계 구간
+ * (스프링 부트가 TransactionExecutionListener 빈을 트랜잭션 매니저에 등록)
+ */
+@Component
+@RequiredArgsConstructor
+public class SqlStatsTransactionListener implements TransactionExecutionListener {
+
+    private static final ThreadLocal<Deque<SqlStats>> transactions = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final SqlStatsRecorder recorder;
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure == null && transaction.isNewTransaction()) {
+            transactions.get().push(SqlStatsContext.open("transaction", transaction.getTransactionName()));
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        complete(transaction);
+    }
+
+    @Override
+    public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+        complete(transaction);
+    }
+
+    private void complete(TransactionExecution transaction) {
+        Deque<SqlStats> current = transactions.get();
+        if (!transaction.isNewTransaction() || current.isEmpty()) {
+            return;
+        }
+        SqlStats stats = current.pop();
+        if (current.isEmpty()) {
+            transactions.remove();
+        }
+        SqlStatsContext.close(stats);
+        recorder.record(stats);
+    }
+}
@@ -0,0 +1,77 @@
+package study.data_jpa.readmodel;
+
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import study.data_jpa.entity.Member;
+import study.data_jpa.entity.Team;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * member_view 에 영향을 주는 엔티티 변경만 MemberViewSync 에 알린다 (MemberViewSync 가 등록)
+ * Member : insert / delete, username / age / team 이 바뀐 update (lease 등 다른 컬럼만 바뀐 update 는 무시)
+ * Team : name 이 바뀐 update (insert 는 소속 회원이 없고, delete 는 회원이 먼저 옮겨져 있음)
+ */
+class MemberViewListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final Set<String> MEMBER_PROPERTIES = Set.of("username", "age", "team");
+
+    private final MemberViewSync sync;
+
+    MemberViewListener(MemberViewSync sync) {
+        this.sync = sync;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            sync.membersChanged(List.of(member.getId()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            if (changed(event, MEMBER_PROPERTIES)) {
+                sync.membersChanged(List.of(member.getId()));
+            }
+        } else if (event.getEntity() instanceof Team team) {
+            if (changed(event, Set.of("name"))) {
+                sync.teamsChanged(List.of(team.getId()));
+            }
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            sync.membersChanged(List.of(member.getId()));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    // dirty 속성을 모르면 (준영속 update 등) 바뀐 것으로 본다
+    private static boolean changed(PostUpdateEvent event, Set<String> properties) {
+        int[] dirty = event.getDirtyProperties();
+        if (dirty == null) {
+            return true;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        for (int index : dirty) {
+            if (properties.contains(names[index])) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
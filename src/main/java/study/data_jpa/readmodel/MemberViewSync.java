@@ -0,0 +1,464 @@
+package study.data_jpa.readmodel;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MariaDBDialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_jpa.datasource.PrimaryStickiness;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * member_view (MemberView) 동기화
+ * 변경된 회원 / 팀 id 를 트랜잭션마다 모았다가 커밋 후에 큐에 넣고, 워커 (가상 스레드 하나) 가 batch-window 동안 모아서 한 번에 반영한다.
+ * 반영은 값을 이벤트에서 받지 않고 그 시점의 member + team 을 다시 읽어서 덮어쓰는 set 기반 sql
+ * (MySQL : insert ... select ... on duplicate key update, 그 밖의 db : merge) -> 이벤트 순서가 뒤바뀌거나 중복돼도 결과가 같다.
+ * - 엔티티 변경 : MemberViewListener (username / age / team 이 바뀐 회원, name 이 바뀐 팀)
+ * - 벌크 update : 바뀐 id / id 범위 / 조건 (update 후의 값 기준) 으로 membersChanged, 그마저 모르면 allChanged (member_id 범위를 나눠서 전체 재구성)
+ * - 시작 시 : 전체 재구성이 끝나기 전까지는 isFresh() = false
+ * 변경을 커밋한 스레드는 sticky-window 동안 PrimaryStickiness 로 표시 -> 자기 변경이 반영되기 전의 member_view 를 읽지 않도록 (라우팅 여부와 상관없이)
+ * member.view.lag : 아직 반영 안 된 변경 중 가장 오래된 것의 커밋 후 경과 시간 (없으면 0)
+ */
+@Slf4j
+@Component
+public class MemberViewSync implements DisposableBean {
+
+    private static final String SOURCE = "select m.member_id, m.username, m.age, m.team_id, t.name team_name" +
+            " from member m left join team t on t.team_id = m.team_id where ";
+
+    // MySQL 8.0.19+ : insert ... select 의 파생 테이블 컬럼으로 갱신
+    private static final String MYSQL_UPSERT = "insert into member_view (member_id, username, age, team_id, team_name)" +
+            " select * from (" + SOURCE + "%s) s" +
+            " on duplicate key update username = s.username, age = s.age, team_id = s.team_id, team_name = s.team_name";
+
+    private static final String MERGE = "merge into member_view v using (" + SOURCE + "%s) s on v.member_id = s.member_id" +
+            " when matched then update set username = s.username, age = s.age, team_id = s.team_id, team_name = s.team_name" +
+            " when not matched then insert (member_id, username, age, team_id, team_name)" +
+            " values (s.member_id, s.username, s.age, s.team_id, s.team_name)";
+
+    private static final String IDS = "m.member_id in (:ids)";
+    private static final String RANGE = "m.member_id > :from and m.member_id <= :to";
+    private static final String DELETE_IDS = "delete from member_view where member_id in (:ids)" +
+            " and member_id not in (select member_id from member where member_id in (:ids))";
+    private static final String DELETE_RANGE = "delete from member_view where member_id > :from and member_id <= :to" +
+            " and member_id not in (select member_id from member where member_id > :from and member_id <= :to)";
+    private static final String DELETE_AFTER = "delete from member_view where member_id > :from";
+    private static final String TEAM_NAME = "update member_view v set team_name = (select t.name from team t where t.team_id = v.team_id)" +
+            " where v.team_id in (:teamIds)";
+    private static final String CHUNK_END = "select max(member_id) from" +
+            " (select member_id from member where member_id > :from order by member_id limit :size) c";
+    private static final String MATCHING_CHUNK_END = "select max(member_id) from" +
+            " (select m.member_id from member m where m.member_id > :from and (%s) order by m.member_id limit :size) c";
+
+    private final boolean enabled;
+    private final EntityManagerFactory emf;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration batchWindow;
+    private final int batchSize;
+    private final int rebuildChunkSize;
+    private final Duration maxLag;
+    private final Duration stickyWindow;
+    private final String upsertSql;
+    private final Counter synced;
+    private final Counter failures;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Condition drained = lock.newCondition();
+    private final Set<Long> memberIds = new LinkedHashSet<>();
+    private final Set<Long> teamIds = new LinkedHashSet<>();
+    private final List<long[]> ranges = new ArrayList<>();
+    private final List<MemberCondition> conditions = new ArrayList<>();
+    private boolean rebuild;
+    private long pendingSince; // 대기 중인 변경 중 가장 오래된 것이 큐에 들어온 시각 (0 = 없음)
+    private long inFlightSince; // 반영 중인 batch 의 가장 오래된 변경 시각 (0 = 없음)
+    private volatile boolean initialized;
+    private volatile boolean running;
+    private Thread worker;
+
+    public MemberViewSync(EntityManagerFactory emf,
+                          DataSource dataSource,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${member-view.enabled:false}") boolean enabled,
+                          @Value("${member-view.batch-window:20ms}") Duration batchWindow,
+                          @Value("${member-view.batch-size:1000}") int batchSize,
+                          @Value("${member-view.rebuild-chunk-size:10000}") int rebuildChunkSize,
+                          @Value("${member-view.max-lag:1s}") Duration maxLag,
+                          @Value("${datasource-routing.sticky-window:5s}") Duration stickyWindow) {
+        this.enabled = enabled;
+        this.emf = emf;
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchWindow = batchWindow;
+        this.batchSize = batchSize;
+        this.rebuildChunkSize = rebuildChunkSize;
+        this.maxLag = maxLag;
+        this.stickyWindow = stickyWindow;
+        Dialect dialect = emf.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        this.upsertSql = dialect instanceof MySQLDialect && !(dialect instanceof MariaDBDialect) ? MYSQL_UPSERT : MERGE;
+        this.synced = meterRegistry.counter("member.view.batches");
+        this.failures = meterRegistry.counter("member.view.failures");
+        Gauge.builder("member.view.lag", this, sync -> sync.lag().toNanos() / 1e9)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        MemberViewListener listener = new MemberViewListener(this);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+        running = true;
+        worker = Thread.ofVirtual().name("member-view-sync").start(this::run);
+    }
+
+    // 앱이 떠 있지 않은 동안의 변경은 모르므로 시작할 때 한 번 전체 재구성
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Changes changes = new Changes();
+        changes.all = true;
+        enqueue(changes); // 시작 스레드의 변경이 아니므로 read-after-write 표시 없이
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 읽기를 member_view 에서 해도 되는지 : 시작 후 재구성이 끝났고, 반영 지연이 max-lag 이하
+     */
+    public boolean isFresh() {
+        return enabled && running && initialized && lag().compareTo(maxLag) <= 0;
+    }
+
+    public Duration lag() {
+        lock.lock();
+        try {
+            long oldest = pendingSince == 0 ? inFlightSince : inFlightSince == 0 ? pendingSince : Math.min(pendingSince, inFlightSince);
+            return oldest == 0 ? Duration.ZERO : Duration.ofNanos(System.nanoTime() - oldest);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void membersChanged(Collection<Long> ids) {
+        record(changes -> changes.memberIds.addAll(ids));
+    }
+
+    public void teamsChanged(Collection<Long> ids) {
+        record(changes -> changes.teamIds.addAll(ids));
+    }
+
+    // member_id 범위 (afterId, endId] 의 회원이 바뀌었을 때 (청크 벌크 update)
+    public void membersChanged(long afterId, long endId) {
+        record(changes -> changes.ranges.add(new long[]{afterId, endId}));
+    }
+
+    /**
+     * 조건 벌크 update 후 : 반영할 때 조건에 맞는 회원만 rebuild-chunk-size 개씩 다시 읽어서 덮어쓴다 (전체 재구성 x)
+     * 조건은 update 가 끝난 뒤의 값으로 평가되므로 바뀐 회원을 그대로 가리켜야 한다 (age >= :age 에 age + 1 이면 age > :age)
+     * 반영 전에 다른 변경으로 조건에서 빠진 회원은 그 변경이 따로 알린다.
+     * @param memberCondition 별칭 m 기준 member 조건 (native sql), 파라미터 이름 from / to / size / ids 는 사용 불가
+     */
+    public void membersChanged(String memberCondition, Map<String, ?> parameters) {
+        record(changes -> changes.conditions.add(new MemberCondition(memberCondition, Map.copyOf(parameters))));
+    }
+
+    // 어떤 회원이 바뀌었는지 모르는 벌크 update 후
+    public void allChanged() {
+        record(changes -> changes.all = true);
+    }
+
+    /**
+     * 지금까지 큐에 들어온 변경이 모두 반영될 때까지 대기 (테스트 / 벤치마크용)
+     */
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long remaining = timeout.toNanos();
+        lock.lock();
+        try {
+            while (pendingSince != 0 || inFlightSince != 0) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = drained.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    // 트랜잭션 안이면 그 트랜잭션 (jpa EntityManagerHolder 기준 -> REQUIRES_NEW 면 따로) 의 변경 목록에 모았다가 커밋 후 큐로 옮긴다
+    // 롤백되면 버림, 트랜잭션 밖이면 이미 반영된 변경이므로 바로 큐로
+    private void record(Consumer<Changes> change) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Changes changes = new Changes();
+            change.accept(changes);
+            enqueue(changes);
+            PrimaryStickiness.markWrite(stickyWindow);
+            return;
+        }
+        Object holder = TransactionSynchronizationManager.getResource(emf);
+        ResourceKey key = new ResourceKey(holder != null ? holder : this);
+        if (TransactionSynchronizationManager.getResource(key) instanceof Changes changes) {
+            change.accept(changes);
+            return;
+        }
+        Changes changes = new Changes();
+        change.accept(changes);
+        TransactionSynchronizationManager.bindResource(key, changes);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(changes);
+                PrimaryStickiness.markWrite(stickyWindow);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(key);
+            }
+        });
+    }
+
+    private void enqueue(Changes changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        try {
+            memberIds.addAll(changes.memberIds);
+            teamIds.addAll(changes.teamIds);
+            ranges.addAll(changes.ranges);
+            conditions.addAll(changes.conditions);
+            rebuild |= changes.all;
+            if (pendingSince == 0) {
+                pendingSince = System.nanoTime();
+            }
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            Batch batch;
+            try {
+                batch = take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                apply(batch);
+                synced.increment();
+                finish(batch, true);
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.warn("member_view sync failed, retrying : {}", e.toString());
+                finish(batch, false);
+                try {
+                    Thread.sleep(batchWindow.multipliedBy(10).toMillis() + 100);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // 첫 변경이 들어오면 batch-window 만큼 더 모은다 (batch-size 가 차거나 전체 재구성이면 바로)
+    private Batch take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (pendingSince == 0) {
+                changed.await();
+            }
+            long deadline = pendingSince + batchWindow.toNanos();
+            long remaining;
+            while (!rebuild && memberIds.size() < batchSize && (remaining = deadline - System.nanoTime()) > 0) {
+                changed.awaitNanos(remaining);
+            }
+            Batch batch = new Batch(rebuild, new ArrayList<>(batchSize), new ArrayList<>(teamIds), new ArrayList<>(ranges),
+                    new ArrayList<>(conditions));
+            if (rebuild) {
+                memberIds.clear(); // 전체 재구성이 모두 덮어씀
+                batch.ranges.clear();
+                batch.conditions.clear();
+            }
+            Iterator<Long> iterator = memberIds.iterator();
+            while (iterator.hasNext() && batch.memberIds.size() < batchSize) {
+                batch.memberIds.add(iterator.next());
+                iterator.remove();
+            }
+            teamIds.clear();
+            ranges.clear();
+            conditions.clear();
+            rebuild = false;
+            inFlightSince = pendingSince;
+            if (memberIds.isEmpty()) {
+                pendingSince = 0;
+            }
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void finish(Batch batch, boolean applied) {
+        lock.lock();
+        try {
+            if (!applied) { // 다시 큐로 (그 사이 들어온 변경과 합쳐짐)
+                memberIds.addAll(batch.memberIds);
+                teamIds.addAll(batch.teamIds);
+                ranges.addAll(batch.ranges);
+                conditions.addAll(batch.conditions);
+                rebuild |= batch.rebuild;
+                pendingSince = pendingSince == 0 ? inFlightSince : Math.min(pendingSince, inFlightSince);
+            } else if (batch.rebuild) {
+                initialized = true;
+            }
+            inFlightSince = 0;
+            if (pendingSince == 0) {
+                drained.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void apply(Batch batch) {
+        if (batch.rebuild) {
+            rebuildAll();
+        }
+        batch.conditions.forEach(this::rebuildMatching);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!batch.memberIds.isEmpty()) {
+                MapSqlParameterSource ids = new MapSqlParameterSource("ids", batch.memberIds);
+                jdbcTemplate.update(upsertSql.formatted(IDS), ids);
+                jdbcTemplate.update(DELETE_IDS, ids);
+            }
+            for (long[] range : batch.ranges) {
+                MapSqlParameterSource parameters = new MapSqlParameterSource("from", range[0]).addValue("to", range[1]);
+                jdbcTemplate.update(upsertSql.formatted(RANGE), parameters);
+                jdbcTemplate.update(DELETE_RANGE, parameters);
+            }
+            if (!batch.teamIds.isEmpty()) {
+                jdbcTemplate.update(TEAM_NAME, new MapSqlParameterSource("teamIds", batch.teamIds));
+            }
+        });
+    }
+
+    // member_id 를 rebuild-chunk-size 개씩 잘라서 청크마다 트랜잭션 하나 (한 문장이 잠그는 row 수 제한)
+    private void rebuildAll() {
+        long from = Long.MIN_VALUE;
+        while (true) {
+            Long to = jdbcTemplate.queryForObject(CHUNK_END,
+                    new MapSqlParameterSource("from", from).addValue("size", rebuildChunkSize), Long.class);
+            if (to == null) {
+                break;
+            }
+            MapSqlParameterSource range = new MapSqlParameterSource("from", from).addValue("to", to);
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update(upsertSql.formatted(RANGE), range);
+                jdbcTemplate.update(DELETE_RANGE, range);
+            });
+            from = to;
+        }
+        jdbcTemplate.update(DELETE_AFTER, new MapSqlParameterSource("from", from));
+    }
+
+    // 조건에 맞는 회원만 member_id 순으로 rebuild-chunk-size 개씩 (조건에서 빠진 회원은 건드리지 않으므로 delete 없음)
+    private void rebuildMatching(MemberCondition condition) {
+        long from = Long.MIN_VALUE;
+        while (true) {
+            MapSqlParameterSource parameters = new MapSqlParameterSource(condition.parameters())
+                    .addValue("from", from)
+                    .addValue("size", rebuildChunkSize);
+            Long to = jdbcTemplate.queryForObject(MATCHING_CHUNK_END.formatted(condition.sql()), parameters, Long.class);
+            if (to == null) {
+                break;
+            }
+            parameters.addValue("to", to);
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.update(upsertSql.formatted(RANGE + " and (" + condition.sql() + ")"), parameters));
+            from = to;
+        }
+    }
+
+    private record ResourceKey(Object transaction) {
+    }
+
+    private record MemberCondition(String sql, Map<String, ?> parameters) {
+    }
+
+    private static final class Changes {
+        private final Set<Long> memberIds = new LinkedHashSet<>();
+        private final Set<Long> teamIds = new LinkedHashSet<>();
+        private final List<long[]> ranges = new ArrayList<>();
+        private final List<MemberCondition> conditions = new ArrayList<>();
+        private boolean all;
+
+        boolean isEmpty() {
+            return memberIds.isEmpty() && teamIds.isEmpty() && ranges.isEmpty() && conditions.isEmpty() && !all;
+        }
+    }
+
+    private record Batch(boolean rebuild, List<Long> memberIds, List<Long> teamIds, List<long[]> ranges,
+                         List<MemberCondition> conditions) {
+    }
+}
@@ -0,0 +1,20 @@
+package study.data_jpa.repository;
+
+/**
+ * 벌크 수정 후 1차 / 2차 캐시에서 무엇을 비울지
+ * (@Modifying(clearAutomatically = true) 는 영속성 컨텍스트 전체를 비우므로 관계없는 엔티티까지 다시 로딩하게 된다)
+ */
+public enum BulkEviction {
+
+    /**
+     * 수정 대상 엔티티 타입만 비운다
+     * 1차 캐시 : 해당 타입 엔티티만 detach / 2차 캐시 : 해당 타입 region 전체 (hibernate 기본 동작)
+     */
+    TYPE,
+
+    /**
+     * 조건에 걸리는 id 를 먼저 조회해서 그 id 만 update 하고 그 id 만 비운다
+     * 나머지 엔티티는 1차 / 2차 캐시에 그대로 남는다 (대상 id 는 조회 시점 기준)
+     */
+    IDS
+}
@@ -0,0 +1,18 @@
+package study.data_jpa.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import study.data_jpa.entity.BulkJob;
+
+import java.util.Optional;
+
+public interface BulkJobRepository extends JpaRepository<BulkJob, String> {
+
+    // 같은 작업을 두 곳에서 동시에 실행해도 청크가 겹치지 않도록 체크포인트 row 를 잠근다
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select j from BulkJob j where j.name = :name")
+    Optional<BulkJob> findForUpdate(@Param("name") String name);
+}
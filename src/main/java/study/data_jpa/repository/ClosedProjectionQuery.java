@@ -0,0 +1,331 @@
+package study.data_jpa.repository;
+
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.ProjectionInformation;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 중첩 closed 인터페이스 projection 을 필요한 컬럼만 select 하는 jpql 로 바꿔준다.
+ * 예) NestedClosedProjections -> select m.username, j1.name from Member m left join m.team j1
+ *
+ * 스프링 데이터 기본 동작은 중첩 인터페이스(TeamInfo) 의 경우 연관 엔티티 전체를 select 하지만,
+ * 여기서는 getter 가 참조하는 컬럼만 조회하고 연관관계마다 join 은 한번만 한다.
+ * @ProjectionExpression 이 붙은 getter 는 해당 jpql 식을 그대로 select 절에 넣는다 (db 에서 계산).
+ *
+ * 결과 row 는 JDK 프록시로 감싸고, 타입마다 한번만 만들어 두는 mapper (getter 배열 -> 컬럼 index) 로 getter 를 처리
+ * -> 스프링 projection 프록시처럼 getter 호출마다 Map 조회 / 타입 변환 / SpEL 평가를 하지 않음 (값 변환은 하지 않으므로 getter 타입과 컬럼 타입이 같아야 함)
+ * 클래스를 생성하는 방식은 아니라서 프록시 호출 비용은 남는다 (DTO 클래스 projection 보다는 느림, ProjectionMappingBenchmark)
+ * 중첩 대상의 컬럼이 전부 null 이면 (left join 대상 없음) 중첩 projection 도 null 로 본다.
+ * Specification 과 같이 쓸 때는 forCriteria 로 가져와서 toSelections 로 같은 컬럼을 criteria select 로 만든다 (@ProjectionExpression 은 jpql 전용).
+ */
+public class ClosedProjectionQuery {
+
+    static final String ROOT_ALIAS = "m";
+    private static final String THIS_PLACEHOLDER = "{this}";
+
+    private static final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+    private static final Map<Class<?>, ClosedProjectionQuery> cache = new ConcurrentHashMap<>();
+
+    private final List<String> selections = new ArrayList<>(); // m.username, j1.name
+    private final List<List<String>> paths = new ArrayList<>(); // [username], [team, name] (@ProjectionExpression 이면 null)
+    private final StringBuilder joins = new StringBuilder();
+    private final List<String> expressionProperties = new ArrayList<>(); // @ProjectionExpression 이 붙은 getter (타입.속성)
+    private int joinCount;
+    private final RowMapper mapper;
+
+    private ClosedProjectionQuery(Class<?> type) {
+        this.mapper = collect(type, ROOT_ALIAS, List.of());
+    }
+
+    /**
+     * getter 만 있는 (@Value 없는) 인터페이스이고, 중첩 인터페이스도 모두 closed 인 경우만 지원
+     */
+    public static boolean supports(Class<?> type) {
+        if (!type.isInterface()) {
+            return false;
+        }
+        ProjectionInformation information = projectionFactory.getProjectionInformation(type);
+        if (!information.isClosed()) {
+            return false;
+        }
+        for (PropertyDescriptor property : information.getInputProperties()) {
+            Class<?> propertyType = property.getPropertyType();
+            if (Collection.class.isAssignableFrom(propertyType) || Map.class.isAssignableFrom(propertyType)) {
+                return false;
+            }
+            if (propertyType.isInterface() && !property.getReadMethod().isAnnotationPresent(ProjectionExpression.class)
+                    && !supports(propertyType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static ClosedProjectionQuery of(Class<?> type) {
+        return cache.computeIfAbsent(type, ClosedProjectionQuery::new);
+    }
+
+    /**
+     * criteria (Specification) 조회용 : jpql 식인 @ProjectionExpression 은 criteria select 로 바꿀 수 없으므로 쿼리를 만들기 전에 거절
+     */
+    public static ClosedProjectionQuery forCriteria(Class<?> type) {
+        if (!supports(type)) {
+            throw new IllegalArgumentException("closed 인터페이스 projection 만 지원합니다: " + type.getName());
+        }
+        ClosedProjectionQuery query = of(type);
+        if (!query.expressionProperties.isEmpty()) {
+            throw new IllegalArgumentException("@ProjectionExpression 은 jpql 조회에서만 지원합니다 (Specification 조회 불가): "
+                    + type.getName() + " " + query.expressionProperties);
+        }
+        return query;
+    }
+
+    /**
+     * @param where root alias 는 "m" (예: "m.username = :username"), 조건이 없으면 null
+     */
+    public String toJpql(String entityName, String where) {
+        StringBuilder jpql = new StringBuilder("select ")
+                .append(String.join(", ", selections))
+                .append(" from ").append(entityName).append(' ').append(ROOT_ALIAS)
+                .append(joins);
+        if (where != null) {
+            jpql.append(" where ").append(where);
+        }
+        return jpql.toString();
+    }
+
+    /**
+     * toJpql 과 같은 순서의 criteria select 목록
+     * 중첩 projection 의 연관관계는 root 에 이미 있는 join (Specification 이 만든 inner join 등) 을 재사용하고, 없으면 left join
+     */
+    public List<Selection<?>> toSelections(From<?, ?> root) {
+        return toSelections(root, Map.of());
+    }
+
+    /**
+     * 연관관계를 펼쳐 둔 엔티티 (읽기 모델 등) 용 : "team.name" 처럼 점으로 이은 경로를 root 의 속성 이름으로 바꿔서 select
+     * 예) Map.of("team.name", "teamName") -> MemberView.teamName (join 없음)
+     */
+    public List<Selection<?>> toSelections(From<?, ?> root, Map<String, String> flattened) {
+        if (!expressionProperties.isEmpty()) {
+            throw new IllegalStateException("forCriteria 를 거치지 않은 @ProjectionExpression projection 입니다: " + expressionProperties);
+        }
+        List<Selection<?>> result = new ArrayList<>(paths.size());
+        for (List<String> path : paths) {
+            String attribute = flattened.get(String.join(".", path));
+            if (attribute != null) {
+                result.add(root.get(attribute));
+                continue;
+            }
+            From<?, ?> from = root;
+            for (String association : path.subList(0, path.size() - 1)) {
+                from = join(from, association);
+            }
+            result.add(from.get(path.get(path.size() - 1)));
+        }
+        return result;
+    }
+
+    private static From<?, ?> join(From<?, ?> from, String association) {
+        for (Join<?, ?> join : from.getJoins()) {
+            if (join.getAttribute().getName().equals(association)) {
+                return join;
+            }
+        }
+        return from.join(association, JoinType.LEFT);
+    }
+
+    public <T> T map(Tuple tuple) {
+        return map(tuple.toArray());
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T map(Object[] row) {
+        return (T) mapper.create(row, false);
+    }
+
+    private RowMapper collect(Class<?> projectionType, String alias, List<String> path) {
+        RowMapper rowMapper = new RowMapper(projectionType);
+        for (PropertyDescriptor property : projectionFactory.getProjectionInformation(projectionType).getInputProperties()) {
+            Method getter = property.getReadMethod();
+            ProjectionExpression expression = getter.getAnnotation(ProjectionExpression.class);
+
+            if (expression != null) {
+                rowMapper.column(getter, selections.size());
+                selections.add(expression.value().replace(THIS_PLACEHOLDER, alias));
+                paths.add(null);
+                expressionProperties.add(projectionType.getSimpleName() + "." + property.getName());
+            } else if (property.getPropertyType().isInterface()) {
+                String joinAlias = "j" + (++joinCount);
+                joins.append(" left join ").append(alias).append('.').append(property.getName()).append(' ').append(joinAlias);
+                rowMapper.nested(getter, collect(property.getPropertyType(), joinAlias, append(path, property.getName())));
+            } else {
+                rowMapper.column(getter, selections.size());
+                selections.add(alias + "." + property.getName());
+                paths.add(append(path, property.getName()));
+            }
+        }
+        rowMapper.bind();
+        return rowMapper;
+    }
+
+    private static List<String> append(List<String> path, String name) {
+        List<String> appended = new ArrayList<>(path);
+        appended.add(name);
+        return appended;
+    }
+
+    /**
+     * projection 타입 하나에 대한 매핑 정보 : getter -> 컬럼 index 또는 중첩 mapper
+     * getter 는 프록시 클래스가 InvocationHandler 에 넘겨주는 Method 객체 그대로 배열에 들고 있고 (bind),
+     * 호출 시에는 배열을 돌면서 == 비교만 한다 (HashMap 의 hashCode / equals 비용 없음, getter 수는 몇 개 안 됨)
+     */
+    private static class RowMapper {
+
+        private final Class<?> type;
+        private final MethodHandle constructor; // 프록시 클래스 생성자 (Proxy.newProxyInstance 의 클래스 조회 비용 제거)
+        private Method[] getters = new Method[0];
+        private Accessor[] accessors = new Accessor[0]; // getters 와 같은 순서
+        private int[] columns = new int[0]; // 중첩 포함 이 projection 이 사용하는 컬럼들
+
+        RowMapper(Class<?> type) {
+            this.type = type;
+            Class<?> proxyClass = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> null)
+                    .getClass();
+            try {
+                this.constructor = MethodHandles.publicLookup()
+                        .findConstructor(proxyClass, MethodType.methodType(void.class, InvocationHandler.class));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("projection 프록시를 만들 수 없습니다: " + type.getName(), e);
+            }
+        }
+
+        void column(Method getter, int index) {
+            add(getter, new Column(index));
+            columns = Arrays.copyOf(columns, columns.length + 1);
+            columns[columns.length - 1] = index;
+        }
+
+        void nested(Method getter, RowMapper nested) {
+            add(getter, new Nested(nested));
+            int length = columns.length;
+            columns = Arrays.copyOf(columns, length + nested.columns.length);
+            System.arraycopy(nested.columns, 0, columns, length, nested.columns.length);
+        }
+
+        private void add(Method getter, Accessor accessor) {
+            getters = Arrays.copyOf(getters, getters.length + 1);
+            getters[getters.length - 1] = getter;
+            accessors = Arrays.copyOf(accessors, accessors.length + 1);
+            accessors[accessors.length - 1] = accessor;
+        }
+
+        /**
+         * PropertyDescriptor 의 getter 를 프록시 클래스가 넘겨주는 Method 객체 (프록시 클래스의 static 필드) 로 바꿔 둔다.
+         * getter 를 한번씩 호출해서 핸들러가 받은 Method 를 기록 (같은 프록시 클래스면 항상 같은 객체)
+         */
+        void bind() {
+            Method[] received = new Method[1];
+            InvocationHandler recorder = (proxy, method, args) -> {
+                received[0] = method;
+                return Array.get(Array.newInstance(method.getReturnType(), 1), 0); // 반환 타입의 기본값 (primitive 는 0 / false)
+            };
+            try {
+                Object probe = constructor.invoke(recorder);
+                for (int i = 0; i < getters.length; i++) {
+                    getters[i].invoke(probe);
+                    getters[i] = received[0];
+                }
+            } catch (Throwable e) {
+                throw new IllegalStateException("projection getter 를 연결할 수 없습니다: " + type.getName(), e);
+            }
+        }
+
+        Object create(Object[] row, boolean nullable) {
+            if (nullable && allNull(row)) {
+                return null;
+            }
+            try {
+                return constructor.invoke(new RowHandler(this, row));
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private boolean allNull(Object[] row) {
+            for (int index : columns) {
+                if (row[index] != null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // getter 하나의 값 : 컬럼 index 또는 중첩 projection
+    private sealed interface Accessor permits Column, Nested {
+    }
+
+    private record Column(int index) implements Accessor {
+    }
+
+    private record Nested(RowMapper mapper) implements Accessor {
+    }
+
+    private record RowHandler(RowMapper mapper, Object[] row) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            Method[] getters = mapper.getters;
+            for (int i = 0; i < getters.length; i++) {
+                if (getters[i] == method) {
+                    return value(mapper.accessors[i]);
+                }
+            }
+            // getter 가 아니면 프록시가 넘겨주는 Object 메서드 (closed projection 이라 다른 메서드는 없음)
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "toString" -> mapper.type.getSimpleName() + toMap();
+                default -> throw new IllegalStateException("projection 속성에 매핑되지 않은 메서드입니다: "
+                        + mapper.type.getName() + "." + method.getName());
+            };
+        }
+
+        private Object value(Accessor accessor) {
+            return switch (accessor) {
+                case Column column -> row[column.index()];
+                case Nested nested -> nested.mapper().create(row, true);
+            };
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (int i = 0; i < mapper.getters.length; i++) {
+                values.put(mapper.getters[i].getName(), value(mapper.accessors[i]));
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package study.data_jpa.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 큰 in 절 조회를 청크로 나눠서 실행하고 결과를 합친다.
+ * - 키는 중복을 제거한 뒤 chunk-sizes 중 하나의 크기로 자르고, 모자라는 자리는 마지막 키를 반복해서 채운다
+ *   -> 키가 몇 개든 sql 모양은 chunk-sizes 개수만큼만 생긴다 (statement 캐시 재사용, MySQL 의 65535 placeholder 제한 회피)
+ * - 청크가 여러 개고 트랜잭션 밖이면 청크마다 가상 스레드 + 별도 readOnly 트랜잭션 (= 별도 커넥션) 으로 동시에 실행
+ *   호출 하나당 max-parallelism 개, 애플리케이션 전체로 max-concurrent-chunks 개까지만 동시에 커넥션을 잡는다.
+ * - 트랜잭션 안에서 호출하면 같은 커넥션에서 순서대로 실행한다 (다른 커넥션은 커밋 전 변경을 못 보므로)
+ * 동시 실행 시 결과 순서는 보장하지 않고, 엔티티를 조회했다면 청크 트랜잭션이 끝난 뒤라 준영속 상태다.
+ */
+@Component
+public class InListExecutor {
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final int[] chunkSizes;
+    private final int maxParallelism;
+    private final Semaphore concurrentChunks;
+
+    public InListExecutor(PlatformTransactionManager transactionManager,
+                          @Value("${in-list.chunk-sizes:16,64,256,1024}") int[] chunkSizes,
+                          @Value("${in-list.max-parallelism:4}") int maxParallelism,
+                          @Value("${in-list.max-concurrent-chunks:8}") int maxConcurrentChunks) {
+        if (chunkSizes.length == 0 || Arrays.stream(chunkSizes).anyMatch(size -> size < 1)) {
+            throw new IllegalArgumentException("in-list.chunk-sizes must be positive : " + Arrays.toString(chunkSizes));
+        }
+        if (maxParallelism < 1 || maxConcurrentChunks < 1) {
+            throw new IllegalArgumentException("in-list.max-parallelism / max-concurrent-chunks must be positive");
+        }
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.chunkSizes = Arrays.stream(chunkSizes).sorted().distinct().toArray();
+        this.maxParallelism = maxParallelism;
+        this.concurrentChunks = new Semaphore(maxConcurrentChunks, true);
+    }
+
+    /**
+     * @param chunkQuery 패딩된 키 청크 하나로 조회 (같은 키가 여러 번 들어 있을 수 있다)
+     */
+    public <K, R> List<R> query(Collection<K> keys, Function<List<K>, List<R>> chunkQuery) {
+        List<List<K>> chunks = chunk(keys);
+        if (chunks.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (chunks.size() == 1 || TransactionSynchronizationManager.isActualTransactionActive()) {
+            List<R> result = new ArrayList<>();
+            chunks.forEach(chunk -> result.addAll(chunkQuery.apply(chunk)));
+            return result;
+        }
+        return fanOut(chunks, chunkQuery);
+    }
+
+    // 워커(가상 스레드) 가 남은 청크를 하나씩 가져가서 실행 -> 호출 하나가 동시에 잡는 커넥션은 워커 수 이하
+    private <K, R> List<R> fanOut(List<List<K>> chunks, Function<List<K>, List<R>> chunkQuery) {
+        AtomicInteger next = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+        int workers = Math.min(maxParallelism, chunks.size());
+        List<Future<List<R>>> futures = new ArrayList<>(workers);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < workers; w++) {
+                futures.add(executor.submit(() -> {
+                    List<R> partial = new ArrayList<>();
+                    for (int i = next.getAndIncrement(); i < chunks.size() && !failed.get(); i = next.getAndIncrement()) {
+                        List<K> chunk = chunks.get(i);
+                        concurrentChunks.acquire();
+                        try {
+                            partial.addAll(readOnlyTransaction.execute(status -> chunkQuery.apply(chunk)));
+                        } catch (RuntimeException e) {
+                            failed.set(true);
+                            throw e;
+                        } finally {
+                            concurrentChunks.release();
+                        }
+                    }
+                    return partial;
+                }));
+            }
+        }
+
+        List<R> result = new ArrayList<>();
+        for (Future<List<R>> future : futures) {
+            result.addAll(join(future));
+        }
+        return result;
+    }
+
+    /**
+     * 중복 제거 후 chunk-sizes 크기로 자른 청크 목록
+     * 가장 큰 크기로 먼저 자르고, 남은 키는 그보다 크거나 같은 가장 작은 크기로 패딩
+     */
+    <K> List<List<K>> chunk(Collection<K> keys) {
+        List<K> distinct = new ArrayList<>(new LinkedHashSet<>(keys));
+        int max = chunkSizes[chunkSizes.length - 1];
+        List<List<K>> chunks = new ArrayList<>(distinct.size() / max + 1);
+        for (int from = 0; from < distinct.size(); from += max) {
+            List<K> chunk = new ArrayList<>(distinct.subList(from, Math.min(from + max, distinct.size())));
+            int padded = paddedSize(chunk.size());
+            K last = chunk.get(chunk.size() - 1);
+            while (chunk.size() < padded) {
+                chunk.add(last);
+            }
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    private int paddedSize(int size) {
+        for (int chunkSize : chunkSizes) {
+            if (chunkSize >= size) {
+                return chunkSize;
+            }
+        }
+        return chunkSizes[chunkSizes.length - 1];
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for in-list chunk", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package study.data_jpa.repository;
+
+import study.data_jpa.entity.Item;
+
+import java.util.Collection;
+
+/**
+ * Item 대량 저장 : 엔티티 / 영속성 컨텍스트를 거치지 않고 jdbc 배치로 바로 쓴다 (조회 없음)
+ * 영속성 컨텍스트에 같은 id 의 Item 이 있으면 그 엔티티는 갱신되지 않으므로 필요하면 다시 조회한다.
+ */
+public interface ItemBulkRepository {
+
+    /**
+     * 새 id 만 insert, 이미 있는 id 가 섞여 있으면 DuplicateKeyException (트랜잭션이 롤백되어 전체 취소)
+     * @return 저장한 수
+     */
+    int persistAll(Collection<Item> items);
+
+    /**
+     * 없는 id 는 insert, 있는 id 는 name 만 갱신 (createdDate 는 처음 insert 된 값 유지)
+     * @return 처리한 수 (insert + update)
+     */
+    int upsertAll(Collection<Item> items);
+}
@@ -0,0 +1,79 @@
+package study.data_jpa.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MariaDBDialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_jpa.entity.Item;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+
+/**
+ * MySQL : insert ... on duplicate key update (rewriteBatchedStatements=true 면 드라이버가 multi-row insert 로 합친다)
+ * 그 밖의 db (H2 등) : 표준 merge ... using (values ..) 로 같은 동작
+ * jdbc 배치는 JpaTransactionManager 가 트랜잭션에 묶어 둔 커넥션을 같이 쓴다.
+ */
+public class ItemBulkRepositoryImpl implements ItemBulkRepository {
+
+    private static final String INSERT_SQL = "insert into item (id, name, created_date) values (?, ?, ?)";
+
+    // MySQL 8.0.19+ 행 별칭 (values(name) 함수는 deprecated)
+    private static final String MYSQL_UPSERT_SQL = INSERT_SQL + " as new on duplicate key update name = new.name";
+
+    private static final String MERGE_SQL = "merge into item t" +
+            " using (values (cast(? as varchar(255)), cast(? as varchar(255)), cast(? as timestamp(6)))) s (id, name, created_date)" +
+            " on t.id = s.id" +
+            " when matched then update set name = s.name" +
+            " when not matched then insert (id, name, created_date) values (s.id, s.name, s.created_date)";
+
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final int batchSize;
+    private final String upsertSql;
+
+    public ItemBulkRepositoryImpl(EntityManager em, JdbcTemplate jdbcTemplate, Clock auditingClock,
+                                  @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}") int batchSize) {
+        this.em = em;
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = auditingClock;
+        this.batchSize = batchSize;
+        Dialect dialect = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        this.upsertSql = dialect instanceof MySQLDialect && !(dialect instanceof MariaDBDialect) ? MYSQL_UPSERT_SQL : MERGE_SQL;
+    }
+
+    @Override
+    @Transactional
+    public int persistAll(Collection<Item> items) {
+        return write(INSERT_SQL, items);
+    }
+
+    @Override
+    @Transactional
+    public int upsertAll(Collection<Item> items) {
+        return write(upsertSql, items);
+    }
+
+    private int write(String sql, Collection<Item> items) {
+        if (items.isEmpty()) {
+            return 0;
+        }
+        em.flush(); // 아직 반영 안 된 jpa 변경이 먼저 나가도록
+        // 한 번 호출 = 같은 등록 시각, 엔티티 auditing (AuditStampListener) 과 같은 시계 / 정밀도
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now(clock).truncatedTo(ChronoUnit.MICROS));
+        jdbcTemplate.batchUpdate(sql, items, batchSize, (ps, item) -> {
+            ps.setString(1, item.getId());
+            ps.setString(2, item.getName());
+            ps.setTimestamp(3, now);
+        });
+        return items.size();
+    }
+}
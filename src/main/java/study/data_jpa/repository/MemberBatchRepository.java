@@ -0,0 +1,18 @@
+package study.data_jpa.repository;
+
+import study.data_jpa.entity.Member;
+
+public interface MemberBatchRepository {
+
+    int saveAllBatched(Iterable<Member> members);
+
+    /**
+     * afterId 다음부터 chunkSize 개째 member_id (남은 row 가 더 적으면 마지막 id, 없으면 null)
+     */
+    Long findChunkEndId(long afterId, int chunkSize);
+
+    /**
+     * (afterId, endId] 범위만 나이 + 1 -> 한 번에 잠기는 row 가 청크 크기로 제한된다
+     */
+    int bulkAgePlusInRange(int age, long afterId, long endId);
+}
@@ -0,0 +1,80 @@
+package study.data_jpa.repository;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_jpa.entity.Member;
+import study.data_jpa.readmodel.MemberViewSync;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 대량 저장용 fragment
+ * hibernate.jdbc.batch_size 만큼 persist 후 flush(배치 insert 전송) + clear(1차 캐시 비움) 를 반복
+ * -> 몇 건을 넣든 영속성 컨텍스트 크기가 batch_size 를 넘지 않는다
+ * 주의 : clear 를 하기 때문에 호출한 쪽의 영속 엔티티도 모두 준영속 상태가 된다
+ *
+ * 청크 update 는 pk 범위로 잘라서 실행 (트랜잭션 경계는 MemberBulkUpdateService 가 청크마다 연다)
+ */
+public class MemberBatchRepositoryImpl implements MemberBatchRepository {
+
+    private final EntityManager em;
+    private final MemberViewSync memberViewSync;
+    private final int batchSize;
+
+    public MemberBatchRepositoryImpl(EntityManager em,
+                                     MemberViewSync memberViewSync,
+                                     @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}") int batchSize) {
+        this.em = em;
+        this.memberViewSync = memberViewSync;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    @Transactional
+    public int saveAllBatched(Iterable<Member> members) {
+        int count = 0;
+        for (Member member : members) {
+            em.persist(member);
+            if (++count % batchSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        return count;
+    }
+
+    @Override
+    public Long findChunkEndId(long afterId, int chunkSize) {
+        // pk 인덱스를 afterId 부터 chunkSize 칸만 훑는다 (seek + offset)
+        List<Long> ids = em.createQuery("select m.id from Member m where m.id > :afterId order by m.id", Long.class)
+                .setParameter("afterId", afterId)
+                .setFirstResult(chunkSize - 1)
+                .setMaxResults(1)
+                .getResultList();
+        if (!ids.isEmpty()) {
+            return ids.get(0);
+        }
+        return em.createQuery("select max(m.id) from Member m where m.id > :afterId", Long.class)
+                .setParameter("afterId", afterId)
+                .getSingleResult();
+    }
+
+    @Override
+    @Transactional
+    public int bulkAgePlusInRange(int age, long afterId, long endId) {
+        // 같은 트랜잭션의 체크포인트 엔티티까지 준영속이 되지 않도록 clear 하지 않는다 (청크 트랜잭션에는 member 가 로딩되어 있지 않음)
+        TeamStatsDelta.agePlusOne(em, "m.member_id > :afterId and m.member_id <= :endId and m.age >= :age",
+                Map.of("afterId", afterId, "endId", endId, "age", age));
+        memberViewSync.membersChanged(afterId, endId);
+        return em.createQuery("update Member m set m.age = m.age + 1, m.version = m.version + 1" +
+                        " where m.id > :afterId and m.id <= :endId and m.age >= :age")
+                .setParameter("afterId", afterId)
+                .setParameter("endId", endId)
+                .setParameter("age", age)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,23 @@
+package study.data_jpa.repository;
+
+import java.util.Collection;
+
+public interface MemberBulkRepository {
+
+    /**
+     * age 이상인 회원 나이 + 1 (team_stats 도 같이 반영) 후 영속성 컨텍스트 전체를 비운다.
+     * 필요한 엔티티만 비우려면 bulkAgePlus(age, BulkEviction) 사용
+     */
+    int bulkAgePlus(int age);
+
+    /**
+     * bulkAgePlus(age) 와 같은 update 이지만 영속성 컨텍스트 전체 대신 eviction 범위만 비운다
+     */
+    int bulkAgePlus(int age, BulkEviction eviction);
+
+    /**
+     * 회원들을 teamId 팀으로 옮기는 update 한 번 (회원 / 팀 members 컬렉션을 로딩하지 않음)
+     * 옮겨진 회원과, 초기화된 members 가 예전 값을 들고 있는 팀은 1차 캐시에서 detach 된다.
+     */
+    int reassignTeam(Collection<Long> memberIds, Long teamId);
+}
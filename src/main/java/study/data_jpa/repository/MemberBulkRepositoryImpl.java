@@ -0,0 +1,158 @@
+package study.data_jpa.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_jpa.entity.Member;
+import study.data_jpa.entity.Team;
+import study.data_jpa.readmodel.MemberViewSync;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * 벌크 수정 + 필요한 만큼만 캐시 비우기
+ * 호출한 쪽이 들고 있는 Team 등 관계없는 엔티티는 영속 상태로 남는다.
+ */
+@RequiredArgsConstructor
+public class MemberBulkRepositoryImpl implements MemberBulkRepository {
+
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    // 어떤 엔티티에도 속하지 않는 query space
+    // native update 에 이것만 지정하면 hibernate 가 2차 캐시 region 을 통째로 비우지 않는다 (지정하지 않으면 모든 region 을 비움)
+    private static final String TARGETED_QUERY_SPACE = "member_bulk_targeted";
+
+    private final EntityManager em;
+    private final MemberViewSync memberViewSync;
+
+    @Override
+    @Transactional
+    public int bulkAgePlus(int age) {
+        em.flush();
+        TeamStatsDelta.agePlusOne(em, "m.age >= :age", Map.of("age", age));
+        int updated = em.createQuery("update Member m set m.age = m.age + 1, m.version = m.version + 1 where m.age >= :age")
+                .setParameter("age", age)
+                .executeUpdate();
+        em.clear(); // @Modifying(clearAutomatically = true) 와 같음
+        memberViewSync.membersChanged("m.age > :age", Map.of("age", age)); // update 후 age > :age = 바뀐 회원
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int bulkAgePlus(int age, BulkEviction eviction) {
+        em.flush(); // 아직 반영 안 된 변경이 벌크 update 결과를 덮어쓰지 않도록 먼저 반영
+        return switch (eviction) {
+            case TYPE -> bulkAgePlusEvictingType(age);
+            case IDS -> bulkAgePlusEvictingIds(age);
+        };
+    }
+
+    @Override
+    @Transactional
+    public int reassignTeam(Collection<Long> memberIds, Long teamId) {
+        if (memberIds.isEmpty()) {
+            return 0;
+        }
+        em.flush();
+        TeamStatsDelta.moveMembers(em, memberIds, teamId);
+        // jpql 벌크 update -> 예전 팀 / 새 팀 양쪽의 Team.members region 과 Member region 을 hibernate 가 비운다
+        int updated = em.createQuery("update Member m set m.team = :team, m.version = m.version + 1 where m.id in :ids")
+                .setParameter("team", em.getReference(Team.class, teamId))
+                .setParameter("ids", memberIds)
+                .executeUpdate();
+        Set<Long> affected = new HashSet<>(memberIds);
+        detachMembers(member -> affected.contains(member.getId()), team -> teamId.equals(team.getId()));
+        memberViewSync.membersChanged(memberIds);
+        return updated;
+    }
+
+    private int bulkAgePlusEvictingType(int age) {
+        TeamStatsDelta.agePlusOne(em, "m.age >= :age", Map.of("age", age));
+        // jpql 벌크 update -> hibernate 가 커밋 전후로 Member region (+ Team.members region) 을 비운다
+        int updated = em.createQuery("update Member m set m.age = m.age + 1, m.version = m.version + 1 where m.age >= :age")
+                .setParameter("age", age)
+                .executeUpdate();
+        detachMembers(member -> true, team -> false);
+        memberViewSync.membersChanged("m.age > :age", Map.of("age", age)); // update 후 age > :age = 바뀐 회원
+        return updated;
+    }
+
+    private int bulkAgePlusEvictingIds(int age) {
+        List<Long> ids = em.createQuery("select m.id from Member m where m.age >= :age", Long.class)
+                .setParameter("age", age)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + IN_CHUNK_SIZE));
+            TeamStatsDelta.agePlusOne(em, "m.member_id in (:ids) and m.age >= :age", Map.of("ids", chunk, "age", age));
+            updated += em.createNativeQuery("update member set age = age + 1, version = version + 1 where member_id in (:ids) and age >= :age")
+                    .unwrap(NativeQuery.class)
+                    .addSynchronizedQuerySpace(TARGETED_QUERY_SPACE)
+                    .setParameter("ids", chunk)
+                    .setParameter("age", age)
+                    .executeUpdate();
+        }
+
+        // 2차 캐시 : 바뀐 id 만 지금 + 트랜잭션 종료 후 한 번 더 (그 사이 다른 트랜잭션이 예전 값을 다시 올렸을 수 있음)
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        evictSecondLevel(session.getFactory(), ids);
+        session.getActionQueue().registerProcess((success, s) -> evictSecondLevel(s.getFactory(), ids));
+
+        Set<Long> affected = new HashSet<>(ids);
+        detachMembers(member -> affected.contains(member.getId()), team -> false);
+        memberViewSync.membersChanged(ids);
+        return updated;
+    }
+
+    private static void evictSecondLevel(SessionFactoryImplementor sessionFactory, List<Long> ids) {
+        org.hibernate.Cache cache = sessionFactory.getCache();
+        for (Long id : ids) {
+            cache.evictEntityData(Member.class, id);
+        }
+    }
+
+    /**
+     * 1차 캐시에서 조건에 맞는 Member 만 detach
+     * 초기화된 members 컬렉션에 detach 된 회원이 들어있는 Team 은 컬렉션이 예전 값을 들고 있으므로 같이 detach 한다.
+     * staleTeam : 회원이 새로 들어와서 초기화된 members 가 예전 값인 팀
+     */
+    private void detachMembers(Predicate<Member> affected, Predicate<Team> staleTeam) {
+        List<Member> members = new ArrayList<>();
+        List<Team> teams = new ArrayList<>();
+        for (Map.Entry<Object, EntityEntry> entry : em.unwrap(SessionImplementor.class)
+                .getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            if (entry.getKey() instanceof Member member && affected.test(member)) {
+                members.add(member);
+            } else if (entry.getKey() instanceof Team team) {
+                teams.add(team);
+            }
+        }
+        Set<Member> detached = Collections.newSetFromMap(new IdentityHashMap<>());
+        detached.addAll(members);
+        members.forEach(em::detach);
+        for (Team team : teams) {
+            if (Hibernate.isInitialized(team.getMembers())
+                    && (staleTeam.test(team) || team.getMembers().stream().anyMatch(detached::contains))) {
+                em.detach(team);
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package study.data_jpa.repository;
+
+import study.data_jpa.entity.Member;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 이름이 수천 개 이상일 때의 findByNames : InListExecutor 로 청크 + 동시 실행
+ */
+public interface MemberInListRepository {
+
+    /**
+     * findByNames 와 같은 결과 (순서 무관)
+     * 트랜잭션 밖에서 청크가 여러 개면 청크마다 다른 트랜잭션에서 조회하므로 반환된 회원은 준영속 (team 지연 로딩 불가)
+     */
+    List<Member> findByNamesInChunks(Collection<String> names);
+}
@@ -0,0 +1,23 @@
+package study.data_jpa.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import study.data_jpa.entity.Member;
+
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class MemberInListRepositoryImpl implements MemberInListRepository {
+
+    private final EntityManager em; // 스레드 / 트랜잭션마다 실제 EntityManager 로 연결되는 공유 프록시
+    private final InListExecutor inListExecutor;
+
+    @Override
+    public List<Member> findByNamesInChunks(Collection<String> names) {
+        return inListExecutor.query(names, chunk ->
+                em.createQuery("select m from Member m where m.username in :names", Member.class)
+                        .setParameter("names", chunk)
+                        .getResultList());
+    }
+}
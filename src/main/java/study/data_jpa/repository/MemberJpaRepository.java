@@ -2,19 +2,25 @@ package study.data_jpa.repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import study.data_jpa.entity.Member;
+import study.data_jpa.readmodel.MemberViewSync;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
+@RequiredArgsConstructor
 public class MemberJpaRepository {
 
     @PersistenceContext
     private EntityManager em;
 
+    private final MemberViewSync memberViewSync;
+
     public Member save(Member member) {
         em.persist(member);
         return member;
@@ -73,7 +79,10 @@ public class MemberJpaRepository {
 
     // bulk 성 쿼리 : 순수 jpa
     public int bulkAgePlus(int age) {
-        return em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age")
+        em.flush(); // team_stats 증감에 아직 insert 안 된 회원도 포함되도록
+        TeamStatsDelta.agePlusOne(em, "m.age >= :age", Map.of("age", age));
+        memberViewSync.membersChanged("m.age > :age", Map.of("age", age)); // update 후 age > :age = 바뀐 회원
+        return em.createQuery("update Member m set m.age = m.age + 1, m.version = m.version + 1 where m.age >= :age")
                 .setParameter("age", age)
                 .executeUpdate();
     }
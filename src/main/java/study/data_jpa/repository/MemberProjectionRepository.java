@@ -0,0 +1,9 @@
+package study.data_jpa.repository;
+
+import java.util.List;
+
+public interface MemberProjectionRepository {
+
+    // 동적 projection : type 에 따라 조회 컬럼이 달라짐
+    <T> List<T> findProjectionsByUsername(String username, Class<T> type);
+}
@@ -0,0 +1,68 @@
+package study.data_jpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import study.data_jpa.entity.Member;
+
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class MemberProjectionRepositoryImpl implements MemberProjectionRepository {
+
+    private static final String USERNAME_CONDITION = "m.username = :username";
+
+    private final EntityManager em;
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> List<T> findProjectionsByUsername(String username, Class<T> type) {
+        // 중첩 closed 인터페이스 : 필요한 컬럼만 select
+        if (ClosedProjectionQuery.supports(type)) {
+            ClosedProjectionQuery query = ClosedProjectionQuery.of(type);
+            return em.createQuery(query.toJpql("Member", USERNAME_CONDITION), Tuple.class)
+                    .setParameter("username", username)
+                    .getResultStream()
+                    .map(query::<T>map)
+                    .toList();
+        }
+
+        // 클래스 기반 dto : 생성자 파라미터 이름으로 new 연산자 조회
+        if (!type.isInterface() && type != Member.class) {
+            return em.createQuery("select " + constructorExpression(type) +
+                            " from Member m where " + USERNAME_CONDITION, type)
+                    .setParameter("username", username)
+                    .getResultList();
+        }
+
+        // 엔티티 / open projection (@Value) : 엔티티를 조회해서 감싼다
+        List<Member> members = em.createQuery("select m from Member m where " + USERNAME_CONDITION, Member.class)
+                .setParameter("username", username)
+                .getResultList();
+        if (type == Member.class) {
+            return (List<T>) members;
+        }
+        return members.stream()
+                .map(member -> projectionFactory.createProjection(type, member))
+                .toList();
+    }
+
+    private String constructorExpression(Class<?> type) {
+        Constructor<?> constructor = BeanUtils.getResolvableConstructor(type);
+        String[] parameterNames = new DefaultParameterNameDiscoverer().getParameterNames(constructor);
+        if (parameterNames == null) {
+            throw new IllegalArgumentException("생성자 파라미터 이름을 알 수 없습니다: " + type.getName());
+        }
+        return Arrays.stream(parameterNames)
+                .map(name -> "m." + name)
+                .collect(Collectors.joining(", ", "new " + type.getName() + "(", ")"));
+    }
+}
@@ -14,10 +14,10 @@ import study.data_jpa.entity.Member;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Stream;
 
 // JpaRepository 를 상속받은 MemberRepository 는 자동으로 스프링 빈에 등록된다.
-public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, JpaSpecificationExecutor<Member> {
+public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, MemberBatchRepository, MemberBulkRepository, MemberWorkQueueRepository, MemberInListRepository, MemberSearchRepository, MemberUsernameRepository, MemberProjectionRepository, JpaSpecificationExecutor<Member> {
 
     // 신기..
     // JPA 에서 메서드를 해석해서 쿼리 날려줌;;
@@ -26,9 +26,6 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     List<Member> findTop3By();
 
-    @Query(name = "Member.findByUsername")
-    List<Member> findByUserName(@Param("username") String username);
-
     @Query("select m from Member m where m.username = :username and m.age = :age")
     List<Member> findUser(@Param("username") String username, @Param("age") int age);
 
@@ -39,23 +36,24 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select new study.data_jpa.dto.MemberDTO(m.id, m.username, t.name) from Member m join m.team t")
     List<MemberDTO> findMemberDto();
 
-    // in : collection 파라미터 값
+    // in : collection 파라미터 값 (수천 개 이상이면 findByNamesInChunks)
     @Query("select m from Member m where m.username in :names")
     List<Member> findByNames(@Param("names") Collection<String> names);
 
-    List<Member> findListByUsername(String username); // 컬렉션
-    Member findMemberByUsername(String username); // 단건
-    Optional<Member> findOptionalByUsername(String username); // 단건 (Optional)
-
-    @Query(value = "select m from Member m left join m.team t",
-            countQuery = "select count(m) from Member m") // count 쿼리를 분리
-    Page<Member> findByAge(int age, Pageable pageable);
+    // count 여부로 고르는 findSliceByAge 와 같은 조건이어야 /members/age/{age} 결과가 같다
+    @Query(value = "select m from Member m left join m.team t where m.age = :age",
+            countQuery = "select count(m) from Member m where m.age = :age") // count 쿼리를 분리
+    Page<Member> findByAge(@Param("age") int age, Pageable pageable);
 
 //    Slice<Member> findByAge(int age, Pageable pageable);
 
-    @Modifying(clearAutomatically = true) // jpa 의 excuteUpdate() 와 같음
-    @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
-    int bulkAgePlus(@Param("age") int age);
+    // count 쿼리 없는 버전 : limit + 1 개를 조회해서 다음 페이지 존재 여부(hasNext)만 판단 (무한 스크롤용)
+    @Query("select m from Member m where m.age = :age")
+    Slice<Member> findSliceByAge(@Param("age") int age, Pageable pageable);
+
+    Slice<Member> findSliceBy(Pageable pageable);
+
+    // keyset(seek) 페이징은 MemberSearchRepository.scroll : offset 대신 마지막 (username, id) 이후의 row 만 조회 -> 페이지가 깊어져도 속도 일정
 
     // fetch join : member 를 조인할 때 연관된 쿼리를 한번에 다 끌고온다. n + 1 문제 해결
     @Query("select m from Member m left join fetch m.team") // member 를 조회할 때 fetch 옆에 있는 team 을 한번에 끌고옴
@@ -75,15 +73,19 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @EntityGraph("Member.all")
     List<Member> findEntityGraphByUsername(@Param("username") String username);
 
-    @QueryHints(value = @QueryHint(name = "org.hibernate.readOnly", value = "true"))
-    Member findReadOnlyByUsername(String username);
+    // 전체 export 용 : List 로 한번에 올리지 않고 fetchSize 단위로 커서를 돌면서 한 건씩 꺼냄
+    // DTO 로 바로 조회하기 때문에 영속성 컨텍스트에 엔티티가 쌓이지 않는다 (반드시 트랜잭션 안에서 사용 + close)
+    @QueryHints(value = {
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("select new study.data_jpa.dto.MemberDTO(m.id, m.username, t.name) from Member m left join m.team t")
+    Stream<MemberDTO> streamMemberDto();
 
-    // select for update
+    // select for update : 같은 row 를 원하는 다른 트랜잭션은 커밋까지 대기 (워커 여러 개로 나눠 처리할 때는 MemberWorkQueueRepository.claim)
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     List<Member> findLockByUsername(String name);
 
-    <T> List<T> findProjectionsByUsername(@Param("username") String username, Class<T> type);
-
     // 네이티브 쿼리 사용 (nativeQuery = true)
     @Query(value = "select * from Member m where username = ?", nativeQuery = true)
     Member findByNativeQuery(String username);
@@ -93,4 +95,10 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
             countQuery = "select count(*) from member",
             nativeQuery = true)
     Page<MemberProjection> findByNativeProjection(Pageable pageable);
+
+    // count 쿼리 없는 버전
+    @Query(value = "select m.member_id as id, m.username, t.name as " +
+            "teamName from member m left join team t on m.team_id = t.team_id",
+            nativeQuery = true)
+    Slice<MemberProjection> findSliceByNativeProjection(Pageable pageable);
 }
@@ -0,0 +1,26 @@
+package study.data_jpa.repository;
+
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import study.data_jpa.entity.Member;
+
+/**
+ * Specification 조건 + closed projection 컬럼만 select + (username, id) keyset 페이징
+ * findBy(spec, q -> q.as(type).scroll(position)) 와 같은 역할이지만, 스프링 데이터 JPA 3.3 의 fluent 쿼리는
+ * 엔티티 전체를 조회한 뒤 projection 으로 감싸기 때문에 (project(..) 도 fetch graph 힌트일 뿐) 직접 criteria 로 만든다.
+ */
+public interface MemberSearchRepository {
+
+    /**
+     * @param type     ClosedProjectionQuery 가 지원하는 closed 인터페이스 (getter 가 참조하는 컬럼만 조회, 연관관계는 그때만 join)
+     * @param position ScrollPosition.keyset() 또는 username / id 키를 가진 forward keyset 위치 (MemberCursor.decode)
+     */
+    <T> Window<T> search(Specification<Member> spec, Class<T> type, ScrollPosition position, int limit);
+
+    /**
+     * 조건 없이 (username, id) 순서로 회원 엔티티 keyset 페이징 (/members/scroll)
+     * 스프링 데이터의 파생 scroll 은 username 이 null 인 위치를 비교하지 못해서 search 와 같은 조건을 쓴다
+     */
+    Window<Member> scroll(ScrollPosition position, int limit);
+}
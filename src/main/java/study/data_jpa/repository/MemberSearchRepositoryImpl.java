@@ -0,0 +1,138 @@
+package study.data_jpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_jpa.entity.Member;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class MemberSearchRepositoryImpl implements MemberSearchRepository {
+
+    private final EntityManager em;
+
+    @Override
+    @Transactional(readOnly = true)
+    public <T> Window<T> search(Specification<Member> spec, Class<T> type, ScrollPosition position, int limit) {
+        return search(em, Member.class, spec, type, Map.of(), position, limit);
+    }
+
+    /**
+     * 엔티티와 상관없는 본문 (MemberViewSearchRepositoryImpl 도 사용), 엔티티에 username / id 속성이 있어야 한다
+     * @param flattened ClosedProjectionQuery.toSelections 참고
+     */
+    static <E, T> Window<T> search(EntityManager em, Class<E> entityType, Specification<E> spec, Class<T> type,
+                                   Map<String, String> flattened, ScrollPosition position, int limit) {
+        ClosedProjectionQuery projection = ClosedProjectionQuery.forCriteria(type); // closed 인터페이스, @ProjectionExpression 없음
+        KeysetScrollPosition keyset = forwardKeyset(position);
+
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<E> root = query.from(entityType);
+        Path<String> username = root.get("username");
+        Path<Long> id = root.get("id");
+
+        List<Predicate> where = new ArrayList<>();
+        Predicate condition = spec == null ? null : spec.toPredicate(root, query, cb); // join 은 조건이 있을 때만 생긴다
+        if (condition != null) {
+            where.add(condition);
+        }
+        if (!keyset.getKeys().isEmpty()) {
+            where.add(keysetAfter(cb, username, id, keyset));
+        }
+
+        // projection 컬럼 뒤에 다음 커서용 (username, id) 를 붙인다 -> projection 매핑은 앞쪽 index 만 사용
+        List<Selection<?>> selections = new ArrayList<>(projection.toSelections(root, flattened));
+        int keyIndex = selections.size();
+        selections.add(username);
+        selections.add(id);
+
+        query.multiselect(selections)
+                .where(where.toArray(Predicate[]::new))
+                .orderBy(cb.asc(username), cb.asc(id));
+
+        List<Tuple> rows = em.createQuery(query)
+                .setMaxResults(limit + 1) // 한 건 더 조회해서 다음 페이지 존재 여부 판단
+                .getResultList();
+        boolean hasNext = rows.size() > limit;
+        List<Tuple> page = hasNext ? rows.subList(0, limit) : rows;
+
+        List<T> content = new ArrayList<>(page.size());
+        for (Tuple row : page) {
+            content.add(projection.map(row));
+        }
+        return Window.from(content, index -> {
+            Tuple row = page.get(index);
+            return position((String) row.get(keyIndex), (Long) row.get(keyIndex + 1));
+        }, hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<Member> scroll(ScrollPosition position, int limit) {
+        KeysetScrollPosition keyset = forwardKeyset(position);
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Member> query = cb.createQuery(Member.class);
+        Root<Member> root = query.from(Member.class);
+        Path<String> username = root.get("username");
+        Path<Long> id = root.get("id");
+        if (!keyset.getKeys().isEmpty()) {
+            query.where(keysetAfter(cb, username, id, keyset));
+        }
+        query.orderBy(cb.asc(username), cb.asc(id));
+
+        List<Member> rows = em.createQuery(query)
+                .setMaxResults(limit + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > limit;
+        List<Member> page = hasNext ? rows.subList(0, limit) : rows;
+        return Window.from(page, index -> position(page.get(index).getUsername(), page.get(index).getId()), hasNext);
+    }
+
+    private static KeysetScrollPosition forwardKeyset(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset) || keyset.scrollsBackward()) {
+            throw new IllegalArgumentException("forward keyset 위치만 지원합니다: " + position);
+        }
+        return keyset;
+    }
+
+    /**
+     * (username, id) 오름차순에서 keyset 위치 다음 row 조건
+     * username 은 null 일 수 있고 MySQL / H2 는 오름차순에서 null 이 맨 앞 -> null 다음은 (null 이면서 id 가 큰 row) 또는 null 이 아닌 row 전부
+     * null 이 아니면 username = / > 비교만으로 null row 는 빠진다 (이미 지나간 row)
+     */
+    static Predicate keysetAfter(CriteriaBuilder cb, Path<String> username, Path<Long> id, KeysetScrollPosition keyset) {
+        String lastUsername = (String) keyset.getKeys().get("username");
+        Long lastId = ((Number) keyset.getKeys().get("id")).longValue();
+        if (lastUsername == null) {
+            return cb.or(
+                    cb.and(cb.isNull(username), cb.greaterThan(id, lastId)),
+                    cb.isNotNull(username));
+        }
+        return cb.or(
+                cb.greaterThan(username, lastUsername),
+                cb.and(cb.equal(username, lastUsername), cb.greaterThan(id, lastId)));
+    }
+
+    private static ScrollPosition position(String username, Long id) {
+        Map<String, Object> keys = new LinkedHashMap<>(); // username 이 null 일 수 있음
+        keys.put("username", username);
+        keys.put("id", id);
+        return ScrollPosition.forward(keys);
+    }
+}
@@ -0,0 +1,11 @@
+package study.data_jpa.repository;
+
+/**
+ * /members/search 결과 : member 테이블 컬럼만 (team join 없음)
+ */
+public interface MemberSearchRow {
+
+    Long getId();
+    String getUsername();
+    int getAge();
+}
@@ -21,6 +21,15 @@ public class MemberSpec {
 
     public static Specification<Member> username(final String username) {
         return (Specification<Member>) (root, query, builder) ->
-            builder.equal(root.get("username"), username);
+            StringUtils.hasText(username) ? builder.equal(root.get("username"), username) : null;
+    }
+
+    // 조건 값이 null 이면 조건 없음 (null predicate 는 and 로 묶을 때 빠진다)
+    public static Specification<Member> ageGoe(final Integer age) {
+        return (root, query, builder) -> age == null ? null : builder.greaterThanOrEqualTo(root.get("age"), age);
+    }
+
+    public static Specification<Member> ageLoe(final Integer age) {
+        return (root, query, builder) -> age == null ? null : builder.lessThanOrEqualTo(root.get("age"), age);
     }
 }
@@ -0,0 +1,12 @@
+package study.data_jpa.repository;
+
+/**
+ * /members/search?withTeam=true 결과 : 팀 이름까지 (team.name 한 컬럼만 join 해서 조회)
+ */
+public interface MemberTeamSearchRow {
+
+    Long getId();
+    String getUsername();
+    int getAge();
+    NestedClosedProjections.TeamInfo getTeam();
+}
@@ -0,0 +1,110 @@
+package study.data_jpa.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * username -> member id 목록 캐시 (natural id 캐시와 같은 역할)
+ * username 은 unique 가 아니라서 @NaturalId 를 쓸 수 없으므로 id 목록을 직접 캐시하고, 엔티티는 2차 캐시에서 꺼낸다.
+ *
+ * MySQL collation (utf8mb4 _ai_ci) 은 대소문자 / 악센트를 구분하지 않고, PAD SPACE collation 이면 끝 공백도 무시하기 때문에
+ * 그 기준으로 정규화한 key (normalize) 아래에 실제 username 별로 묶어서 저장
+ * -> "AAA" 가 저장/삭제되면 "aaa", "Àaa ", ... 로 캐시된 결과도 같이 무효화됨
+ *
+ * 캐시는 현재 트랜잭션과 상관없이 새로 연 트랜잭션의 조회 결과로만 채운다 (MemberUsernameRepositoryImpl)
+ * 조회 시작 시점의 generation 과 넣는 시점의 generation 이 같으면, 그 사이 무효화가 없었으므로
+ * 조회 스냅샷은 마지막 무효화 (= 마지막 커밋) 이후의 것이다.
+ * 현재 트랜잭션에서 Member 를 바꾼 경우 (커밋 전 값) 는 캐시를 거치지 않는다 (changedInTransaction)
+ * 주의 : native query / bulk 쿼리로 username 을 바꾸는 경우는 감지하지 못한다
+ */
+@Component
+public class MemberUsernameCache {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern TRAILING_SPACES = Pattern.compile(" +$");
+
+    private final Cache<String, Map<String, List<Long>>> cache;
+    private final AtomicLong generation = new AtomicLong(); // 무효화 될 때마다 증가
+
+    public MemberUsernameCache(@Value("${cache.member-username.ttl:10m}") Duration ttl,
+                               @Value("${cache.member-username.maximum-size:100000}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    public List<Long> get(String username, Function<String, List<Long>> loader) {
+        String key = normalize(username);
+        Map<String, List<Long>> variants = cache.getIfPresent(key);
+        List<Long> ids = variants == null ? null : variants.get(username);
+        if (ids != null) {
+            return ids;
+        }
+
+        long stamp = generation.get();
+        List<Long> loaded = List.copyOf(loader.apply(username));
+        // 조회하는 사이에 무효화가 일어났으면 (= 오래된 결과일 수 있음) 캐시에 넣지 않는다
+        cache.asMap().compute(key, (k, current) -> {
+            if (generation.get() != stamp) {
+                return current;
+            }
+            Map<String, List<Long>> next = current == null ? new ConcurrentHashMap<>() : current;
+            next.put(username, loaded);
+            return next;
+        });
+        return loaded;
+    }
+
+    public void evict(String username) {
+        if (username == null) {
+            return;
+        }
+        generation.incrementAndGet();
+        cache.invalidate(normalize(username));
+    }
+
+    public void evictAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    // 현재 트랜잭션에서 Member 를 바꿨는지 (커밋 전 값을 봐야 하는지)
+    // 동기화 목록은 REQUIRES_NEW 트랜잭션마다 따로 잡히므로 트랜잭션 단위로 맞게 나뉜다
+    public boolean changedInTransaction() {
+        return TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.getSynchronizations().stream().anyMatch(EvictAfterCompletion.class::isInstance);
+    }
+
+    /**
+     * db 의 username 비교와 같은 기준 (끝 공백 / 악센트 / 대소문자 무시) 으로 정규화
+     * db 보다 느슨한 쪽으로만 틀리도록 맞췄다 (무효화가 더 넓게 걸리는 쪽)
+     */
+    public static String normalize(String username) {
+        String stripped = TRAILING_SPACES.matcher(username).replaceFirst("");
+        String decomposed = Normalizer.normalize(stripped, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    // MemberUsernameCacheInvalidator 가 flush 시점에 등록 : 트랜잭션이 끝난 뒤 (커밋/롤백) 한번 더 무효화
+    record EvictAfterCompletion(Runnable eviction) implements TransactionSynchronization {
+        @Override
+        public void afterCompletion(int status) {
+            eviction.run();
+        }
+    }
+}
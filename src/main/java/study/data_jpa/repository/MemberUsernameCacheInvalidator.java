@@ -0,0 +1,90 @@
+package study.data_jpa.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.data_jpa.entity.Member;
+
+import java.util.Objects;
+
+/**
+ * Member insert / update / delete 시 MemberUsernameCache 무효화
+ * flush 시점에 한번, 트랜잭션이 끝난 뒤(커밋/롤백) 한번 더 지운다.
+ * -> 커밋 전에 다른 트랜잭션이 예전 값을 다시 캐시에 넣어도 커밋 후에 정리됨
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberUsernameCacheInvalidator implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+    private final MemberUsernameCache usernameCache;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            evict(member.getUsername());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member member)) {
+            return;
+        }
+        if (event.getOldState() == null) {
+            evictAll(); // detached 엔티티 update 등 이전 username 을 모르는 경우
+            return;
+        }
+        // username 이 바뀐 경우 이전 username / 새 username 모두 무효화
+        String oldUsername = (String) event.getOldState()[event.getPersister().getPropertyIndex("username")];
+        if (!Objects.equals(oldUsername, member.getUsername())) {
+            evict(oldUsername);
+            evict(member.getUsername());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            evict(member.getUsername());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void evict(String username) {
+        if (username != null) {
+            evictNowAndAfterCompletion(() -> usernameCache.evict(username));
+        }
+    }
+
+    private void evictAll() {
+        evictNowAndAfterCompletion(usernameCache::evictAll);
+    }
+
+    private void evictNowAndAfterCompletion(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new MemberUsernameCache.EvictAfterCompletion(eviction));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package study.data_jpa.repository;
+
+import study.data_jpa.entity.Member;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * username 조회 fragment : MemberUsernameCache 에서 id 목록을, 2차 캐시에서 엔티티를 꺼낸다 (캐시 hit 시 sql 안나감)
+ */
+public interface MemberUsernameRepository {
+
+    List<Member> findListByUsername(String username); // 컬렉션
+    Member findMemberByUsername(String username); // 단건
+    Optional<Member> findOptionalByUsername(String username); // 단건 (Optional)
+
+    List<Member> findByUserName(String username); // named query (Member.findByUsername) 와 같은 결과
+
+    Member findReadOnlyByUsername(String username); // 읽기 전용 (변경 감지 x)
+}
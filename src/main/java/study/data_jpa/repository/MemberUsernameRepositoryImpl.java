@@ -0,0 +1,91 @@
+package study.data_jpa.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_jpa.datasource.PrimaryReads;
+import study.data_jpa.entity.Member;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MemberUsernameRepositoryImpl implements MemberUsernameRepository {
+
+    private final EntityManager em;
+    private final MemberUsernameCache usernameCache;
+    private final PrimaryReads primaryReads;
+
+    @Override
+    public List<Member> findListByUsername(String username) {
+        return findByUsername(username, false);
+    }
+
+    @Override
+    public Member findMemberByUsername(String username) {
+        return single(findByUsername(username, false));
+    }
+
+    @Override
+    public Optional<Member> findOptionalByUsername(String username) {
+        return Optional.ofNullable(single(findByUsername(username, false)));
+    }
+
+    @Override
+    public List<Member> findByUserName(String username) {
+        return findByUsername(username, false);
+    }
+
+    @Override
+    public Member findReadOnlyByUsername(String username) {
+        return single(findByUsername(username, true));
+    }
+
+    private List<Member> findByUsername(String username, boolean readOnly) {
+        if (username == null) {
+            return em.createQuery("select m from Member m where m.username is null order by m.id", Member.class)
+                    .getResultList();
+        }
+
+        Session session = em.unwrap(Session.class);
+        // 쿼리였다면 자동 flush 로 반영됐을 변경 사항(저장 / username 변경)을 먼저 반영 -> 캐시 무효화 이벤트 발생
+        if (session.isDirty()) {
+            session.flush();
+        }
+
+        // 현재 트랜잭션이 Member 를 바꿨으면 커밋 전 값을 봐야 하므로 캐시 없이 현재 트랜잭션에서 조회
+        // 아니면 id 목록은 캐시에 남으므로 primary 에 새로 연 트랜잭션에서 조회 (현재 트랜잭션의 오래된 스냅샷이 캐시되지 않도록)
+        // 엔티티는 2차 캐시 / 현재 트랜잭션의 db 에서
+        List<Long> ids = usernameCache.changedInTransaction()
+                ? findIds(username)
+                : usernameCache.get(username, name -> primaryReads.fresh(() -> findIds(name)));
+        String normalized = MemberUsernameCache.normalize(username);
+        List<Member> members = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Member member = session.byId(Member.class).withReadOnly(readOnly).load(id);
+            // 다른 트랜잭션에서 삭제 / username 변경 후 아직 커밋 전인 경우 걸러냄 (db collation 과 같은 기준으로 비교)
+            if (member != null && member.getUsername() != null
+                    && normalized.equals(MemberUsernameCache.normalize(member.getUsername()))) {
+                members.add(member);
+            }
+        }
+        return members;
+    }
+
+    private List<Long> findIds(String username) {
+        return em.createQuery("select m.id from Member m where m.username = :username order by m.id", Long.class)
+                .setParameter("username", username)
+                .getResultList();
+    }
+
+    private Member single(List<Member> members) {
+        if (members.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, members.size());
+        }
+        return members.isEmpty() ? null : members.get(0);
+    }
+}
@@ -0,0 +1,30 @@
+package study.data_jpa.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import study.data_jpa.dto.MemberDTO;
+import study.data_jpa.entity.MemberView;
+
+/**
+ * member_view 조회 : MemberRepository 의 목록 / projection 조회와 같은 결과를 team join 없이
+ * MemberController 가 MemberViewSync.isFresh() 일 때만 사용
+ */
+public interface MemberViewRepository extends JpaRepository<MemberView, Long>, MemberViewSearchRepository {
+
+    @Query(value = "select new study.data_jpa.dto.MemberDTO(v.id, v.username, v.teamName) from MemberView v",
+            countQuery = "select count(v) from MemberView v")
+    Page<MemberDTO> findMemberDto(Pageable pageable);
+
+    @Query("select new study.data_jpa.dto.MemberDTO(v.id, v.username, v.teamName) from MemberView v")
+    Slice<MemberDTO> findSliceMemberDto(Pageable pageable);
+
+    @Query(value = "select v.id as id, v.username as username, v.teamName as teamName from MemberView v",
+            countQuery = "select count(v) from MemberView v")
+    Page<MemberProjection> findProjection(Pageable pageable);
+
+    @Query("select v.id as id, v.username as username, v.teamName as teamName from MemberView v")
+    Slice<MemberProjection> findSliceProjection(Pageable pageable);
+}
@@ -0,0 +1,15 @@
+package study.data_jpa.repository;
+
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import study.data_jpa.entity.MemberView;
+
+/**
+ * MemberSearchRepository 의 member_view 버전 : 같은 projection 타입 / 커서를 join 없이 조회
+ * 중첩 projection 의 team.name 은 MemberView.teamName 컬럼으로 읽는다.
+ */
+public interface MemberViewSearchRepository {
+
+    <T> Window<T> search(Specification<MemberView> spec, Class<T> type, ScrollPosition position, int limit);
+}
@@ -0,0 +1,25 @@
+package study.data_jpa.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_jpa.entity.MemberView;
+
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class MemberViewSearchRepositoryImpl implements MemberViewSearchRepository {
+
+    private static final Map<String, String> FLATTENED = Map.of("team.name", "teamName");
+
+    private final EntityManager em;
+
+    @Override
+    @Transactional(readOnly = true)
+    public <T> Window<T> search(Specification<MemberView> spec, Class<T> type, ScrollPosition position, int limit) {
+        return MemberSearchRepositoryImpl.search(em, MemberView.class, spec, type, FLATTENED, position, limit);
+    }
+}
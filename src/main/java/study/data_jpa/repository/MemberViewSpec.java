@@ -0,0 +1,27 @@
+package study.data_jpa.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+import study.data_jpa.entity.MemberView;
+
+/**
+ * MemberSpec 과 같은 조건을 member_view 에 (팀 이름도 join 없이 컬럼 비교)
+ */
+public class MemberViewSpec {
+
+    public static Specification<MemberView> teamName(final String teamName) {
+        return (root, query, builder) -> StringUtils.hasLength(teamName) ? builder.equal(root.get("teamName"), teamName) : null;
+    }
+
+    public static Specification<MemberView> username(final String username) {
+        return (root, query, builder) -> StringUtils.hasText(username) ? builder.equal(root.get("username"), username) : null;
+    }
+
+    public static Specification<MemberView> ageGoe(final Integer age) {
+        return (root, query, builder) -> age == null ? null : builder.greaterThanOrEqualTo(root.get("age"), age);
+    }
+
+    public static Specification<MemberView> ageLoe(final Integer age) {
+        return (root, query, builder) -> age == null ? null : builder.lessThanOrEqualTo(root.get("age"), age);
+    }
+}
@@ -0,0 +1,27 @@
+package study.data_jpa.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import study.data_jpa.entity.Member;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Member 를 작업 큐처럼 여러 워커(스레드 / 서버) 가 나눠서 처리하기 위한 fragment
+ * claim 은 짧은 트랜잭션 안에서 호출하고 (커밋 시점에 lease 가 저장되고 row 잠금이 풀림), 처리가 끝나면 release 한다.
+ */
+public interface MemberWorkQueueRepository {
+
+    /**
+     * spec 에 맞고 lease 가 없거나 만료된 회원을 id 순으로 최대 limit 명 가져와서 owner 에게 lease 동안 빌려준다.
+     * 다른 트랜잭션이 잠근 row 는 기다리지 않고 건너뛴다 (select ... for update skip locked)
+     */
+    List<Member> claim(Specification<Member> spec, String owner, int limit, Duration lease);
+
+    /**
+     * owner 가 아직 lease 를 가지고 있는 회원만 lease 해제
+     * @return 해제된 수 (lease 가 만료되어 다른 워커가 가져간 회원은 빠진다)
+     */
+    int release(String owner, Collection<Long> ids);
+}
@@ -0,0 +1,81 @@
+package study.data_jpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.LockOptions;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_jpa.entity.Member;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * lock timeout -2 (LockOptions.SKIP_LOCKED) -> MySQL 8 / PostgreSQL : for update skip locked
+ * 잠금은 claim 트랜잭션 동안만 유지되고, 그 뒤로는 lease 컬럼이 다른 워커의 claim 을 막는다.
+ * lease 는 엔티티 변경 감지로 저장 -> 2차 캐시 region 전체를 비우는 벌크 update 를 쓰지 않는다.
+ * 만료 비교 / 만료 시각은 모두 db 시각 (claim 쿼리에서 같이 select 한 localtimestamp) 기준
+ * -> 워커 서버마다 시계가 달라도 다른 워커의 lease 를 일찍 뺏거나 늦게 풀지 않는다.
+ */
+@RequiredArgsConstructor
+public class MemberWorkQueueRepositoryImpl implements MemberWorkQueueRepository {
+
+    private final EntityManager em;
+
+    @Override
+    @Transactional
+    public List<Member> claim(Specification<Member> spec, String owner, int limit, Duration lease) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Member> member = query.from(Member.class);
+        Expression<LocalDateTime> dbNow = cb.localDateTime();
+        Predicate available = cb.or(
+                cb.isNull(member.get("leaseExpiresAt")),
+                cb.lessThan(member.<LocalDateTime>get("leaseExpiresAt"), dbNow));
+        Predicate condition = spec == null ? null : spec.toPredicate(member, query, cb);
+        query.multiselect(member, dbNow)
+                .where(condition == null ? available : cb.and(condition, available))
+                .orderBy(cb.asc(member.get("id")));
+
+        List<Tuple> rows = em.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint(SpecHints.HINT_SPEC_LOCK_TIMEOUT, LockOptions.SKIP_LOCKED)
+                .setMaxResults(limit)
+                .getResultList();
+
+        List<Member> claimed = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Member m = row.get(0, Member.class);
+            m.lease(owner, row.get(1, LocalDateTime.class).plus(lease));
+            claimed.add(m);
+        }
+        return claimed;
+    }
+
+    @Override
+    @Transactional
+    public int release(String owner, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Member> leased = em.createQuery("select m from Member m where m.id in :ids and m.leaseOwner = :owner", Member.class)
+                .setParameter("ids", ids)
+                .setParameter("owner", owner)
+                .getResultList();
+        for (Member m : leased) {
+            m.releaseLease();
+        }
+        return leased.size();
+    }
+}
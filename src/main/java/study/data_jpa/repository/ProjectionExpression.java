@@ -0,0 +1,18 @@
+package study.data_jpa.repository;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * projection 인터페이스의 계산 프로퍼티를 select 절의 jpql 식으로 내려보낸다 (@Value SpEL 대체)
+ * 해당 projection 의 alias 는 {this} 로 참조
+ * 예) @ProjectionExpression("concat({this}.username, ' ', cast({this}.age as String))")
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ProjectionExpression {
+
+    String value();
+}
@@ -0,0 +1,52 @@
+package study.data_jpa.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.query.NativeQuery;
+import study.data_jpa.entity.TeamStats;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 벌크 update 용 team_stats 증감 (엔티티 이벤트가 없으므로 벌크 update 직전에 같은 조건으로 호출)
+ * 팀별 증감을 member 에서 바로 계산하는 update 한 번 -> 바뀌는 회원을 애플리케이션으로 읽어오지 않는다.
+ * query space 를 TeamStats 로만 지정해서 2차 캐시 region 을 통째로 비우지 않게 한다.
+ */
+final class TeamStatsDelta {
+
+    private TeamStatsDelta() {
+    }
+
+    /**
+     * 조건에 걸린 회원의 나이가 1 씩 늘어날 때 : 팀마다 걸린 회원 수만큼 age_sum 증가
+     * @param memberCondition 별칭 m 기준 member 조건 (native sql)
+     */
+    static int agePlusOne(EntityManager em, String memberCondition, Map<String, ?> parameters) {
+        return update(em, "update team_stats s" +
+                " set age_sum = age_sum + (select count(*) from member m where m.team_id = s.team_id and " + memberCondition + ")" +
+                " where s.team_id in (select m.team_id from member m where " + memberCondition + ")", parameters);
+    }
+
+    /**
+     * 회원들이 teamId 팀으로 옮겨갈 때 : 예전 팀에서 빼고 새 팀에 더한다 (이미 새 팀인 회원은 빼고 더해서 그대로)
+     */
+    static void moveMembers(EntityManager em, Collection<Long> memberIds, Long teamId) {
+        Map<String, ?> parameters = Map.of("ids", memberIds);
+        update(em, "update team_stats s" +
+                " set member_count = member_count - (select count(*) from member m where m.team_id = s.team_id and m.member_id in (:ids))," +
+                " age_sum = age_sum - (select coalesce(sum(m.age), 0) from member m where m.team_id = s.team_id and m.member_id in (:ids))" +
+                " where s.team_id in (select m.team_id from member m where m.member_id in (:ids))", parameters);
+        update(em, "update team_stats s" +
+                " set member_count = member_count + (select count(*) from member m where m.member_id in (:ids))," +
+                " age_sum = age_sum + (select coalesce(sum(m.age), 0) from member m where m.member_id in (:ids))" +
+                " where s.team_id = :teamId", Map.of("ids", memberIds, "teamId", teamId));
+    }
+
+    private static int update(EntityManager em, String sql, Map<String, ?> parameters) {
+        NativeQuery<?> query = em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(TeamStats.class);
+        parameters.forEach(query::setParameter);
+        return query.executeUpdate();
+    }
+}
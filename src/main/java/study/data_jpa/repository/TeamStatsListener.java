@@ -0,0 +1,238 @@
+package study.data_jpa.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.data_jpa.entity.Member;
+import study.data_jpa.entity.Team;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Member / Team insert / update / delete 를 team_stats 에 반영
+ * 이벤트마다 sql 을 보내지 않고 팀별 증감 (회원 수, 나이 합) 을 모아 두었다가 flush 가 끝날 때 팀당 update 한 번으로 보낸다.
+ * 팀 id 순서로 update 하므로 여러 팀을 건드리는 트랜잭션끼리 교착되지 않는다.
+ * 벌크 update 는 이벤트가 없으므로 MemberBulkRepositoryImpl 등이 TeamStatsDelta 로 직접 반영한다.
+ * 스프링 트랜잭션 밖의 flush 는 반영하지 않음 (TeamStatsReconciler 가 보정)
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamStatsListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener,
+        FlushEventListener, AutoFlushEventListener {
+
+    private static final String INSERT_SQL = "insert into team_stats (team_id, member_count, age_sum) values (?, 0, 0)";
+    private static final String DELTA_SQL = "update team_stats set member_count = member_count + ?, age_sum = age_sum + ? where team_id = ?";
+    private static final String RECOMPUTE_SQL = "update team_stats set" +
+            " member_count = (select count(*) from member where team_id = ?)," +
+            " age_sum = (select coalesce(sum(age), 0) from member where team_id = ?)" +
+            " where team_id = ?";
+    private static final String DELETE_SQL = "delete from team_stats where team_id = ?";
+
+    private final EntityManagerFactory emf;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.FLUSH, this); // 기본 flush 리스너 뒤 = insert / update 가 모두 나간 뒤
+        registry.appendListeners(EventType.AUTO_FLUSH, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            Pending pending = pending(event.getSession());
+            if (pending != null) {
+                pending.add(teamId(member.getTeam()), 1, member.getAge());
+            }
+        } else if (event.getEntity() instanceof Team team) {
+            Pending pending = pending(event.getSession());
+            if (pending != null) {
+                pending.created.add(team.getId());
+            }
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member member)) {
+            return;
+        }
+        Pending pending = pending(event.getSession());
+        if (pending == null) {
+            return;
+        }
+        Long newTeamId = teamId(member.getTeam());
+        if (event.getOldState() == null) {
+            if (newTeamId != null) {
+                pending.recompute.add(newTeamId); // 이전 값을 모르면 지금 팀만 다시 계산 (예전 팀은 reconcile 이 보정)
+            }
+            return;
+        }
+        EntityPersister persister = event.getPersister();
+        Long oldTeamId = teamId(event.getOldState()[persister.getPropertyIndex("team")]);
+        int oldAge = (Integer) event.getOldState()[persister.getPropertyIndex("age")];
+        if (Objects.equals(oldTeamId, newTeamId)) {
+            pending.add(newTeamId, 0, member.getAge() - oldAge);
+        } else {
+            pending.add(oldTeamId, -1, -oldAge);
+            pending.add(newTeamId, 1, member.getAge());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            Pending pending = pending(event.getSession());
+            if (pending != null) {
+                EntityPersister persister = event.getPersister();
+                Object[] state = event.getDeletedState();
+                pending.add(teamId(state[persister.getPropertyIndex("team")]), -1, -(Integer) state[persister.getPropertyIndex("age")]);
+            }
+        } else if (event.getEntity() instanceof Team team) {
+            Pending pending = pending(event.getSession());
+            if (pending != null) {
+                pending.deleted.add(team.getId());
+            }
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) {
+        apply(event.getSession());
+    }
+
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) {
+        apply(event.getSession());
+    }
+
+    private void apply(EventSource session) {
+        if (!(TransactionSynchronizationManager.getResource(session) instanceof Pending pending) || pending.isEmpty()) {
+            return;
+        }
+        session.doWork(connection -> {
+            executeBatch(connection, INSERT_SQL, pending.created);
+            if (pending.hasDeltas()) { // 팀만 생긴 flush 는 빈 batch 를 보내지 않는다
+                try (PreparedStatement ps = connection.prepareStatement(DELTA_SQL)) {
+                    for (Map.Entry<Long, long[]> entry : pending.deltas.entrySet()) {
+                        long[] delta = entry.getValue();
+                        if (delta[0] == 0 && delta[1] == 0) {
+                            continue;
+                        }
+                        ps.setLong(1, delta[0]);
+                        ps.setLong(2, delta[1]);
+                        ps.setLong(3, entry.getKey());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+            }
+            if (!pending.recompute.isEmpty()) {
+                try (PreparedStatement ps = connection.prepareStatement(RECOMPUTE_SQL)) {
+                    for (Long teamId : pending.recompute) {
+                        ps.setLong(1, teamId);
+                        ps.setLong(2, teamId);
+                        ps.setLong(3, teamId);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+            }
+            executeBatch(connection, DELETE_SQL, pending.deleted);
+        });
+        pending.clear();
+    }
+
+    private static void executeBatch(Connection connection, String sql, Collection<Long> teamIds) throws SQLException {
+        if (teamIds.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (Long teamId : teamIds) {
+                ps.setLong(1, teamId);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    // 세션 (= 트랜잭션) 마다 따로 모은다, 트랜잭션이 끝나면 반영하지 못한 값은 버림 (롤백)
+    private Pending pending(EventSource session) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        if (TransactionSynchronizationManager.getResource(session) instanceof Pending pending) {
+            return pending;
+        }
+        Pending pending = new Pending();
+        TransactionSynchronizationManager.bindResource(session, pending);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(session);
+            }
+        });
+        return pending;
+    }
+
+    // team 은 프록시일 수 있음 -> getId 는 초기화하지 않는다
+    private static Long teamId(Object team) {
+        return team == null ? null : ((Team) team).getId();
+    }
+
+    private static final class Pending {
+        private final Map<Long, long[]> deltas = new TreeMap<>(); // team id -> {회원 수, 나이 합}
+        private final Set<Long> created = new TreeSet<>();
+        private final Set<Long> recompute = new TreeSet<>();
+        private final Set<Long> deleted = new TreeSet<>();
+
+        void add(Long teamId, long count, long age) {
+            if (teamId == null) {
+                return;
+            }
+            long[] delta = deltas.computeIfAbsent(teamId, id -> new long[2]);
+            delta[0] += count;
+            delta[1] += age;
+        }
+
+        boolean hasDeltas() {
+            return deltas.values().stream().anyMatch(delta -> delta[0] != 0 || delta[1] != 0);
+        }
+
+        boolean isEmpty() {
+            return deltas.isEmpty() && created.isEmpty() && recompute.isEmpty() && deleted.isEmpty();
+        }
+
+        void clear() {
+            deltas.clear();
+            created.clear();
+            recompute.clear();
+            deleted.clear();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package study.data_jpa.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import study.data_jpa.entity.TeamStats;
+
+public interface TeamStatsRepository extends JpaRepository<TeamStats, Long> {
+}
@@ -1,9 +1,9 @@
 package study.data_jpa.repository;
 
-import org.springframework.beans.factory.annotation.Value;
-
 public interface UsernameOnly {
 
-    @Value("#{target.username + ' ' + target.age}")
+    // @Value("#{target.username + ' ' + target.age}") (open projection) 는 엔티티 전체를 조회하고 getter 호출마다 SpEL 평가
+    // -> select 절에서 계산해서 컬럼 하나만 조회
+    @ProjectionExpression("concat({this}.username, ' ', cast({this}.age as String))")
     String getUsername();
 }
@@ -0,0 +1,19 @@
+package study.data_jpa.retry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 낙관적 락 충돌 시 메서드를 다시 실행 (OptimisticRetryAspect)
+ * 보통 @Transactional 과 같이 붙인다 -> 재시도마다 새 트랜잭션
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OptimisticRetry {
+
+    String value() default ""; // 메트릭 name tag, 비우면 클래스명.메서드명
+
+    int maxAttempts() default 0; // 0 이면 optimistic-retry.max-attempts
+}
@@ -0,0 +1,38 @@
+package study.data_jpa.retry;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.UndeclaredThrowableException;
+
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1) // @Transactional (LOWEST_PRECEDENCE) 보다 바깥에서 감싸야 재시도마다 트랜잭션이 새로 열린다
+@RequiredArgsConstructor
+public class OptimisticRetryAspect {
+
+    private final OptimisticRetryTemplate optimisticRetryTemplate;
+
+    @Around("@annotation(retry)")
+    public Object retry(ProceedingJoinPoint joinPoint, OptimisticRetry retry) throws Exception {
+        String name = retry.value().isEmpty()
+                ? joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName()
+                : retry.value();
+        return optimisticRetryTemplate.retry(name, retry.maxAttempts(), () -> proceed(joinPoint));
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint) throws Exception {
+        try {
+            return joinPoint.proceed();
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package study.data_jpa.retry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.StaleStateException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.function.ThrowingSupplier;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * 낙관적 락 충돌 (version 불일치) 시 트랜잭션 단위를 처음부터 다시 실행
+ * 재시도 사이에는 지수적으로 늘어나는 상한 안에서 무작위로 쉰다 (full jitter) -> 충돌한 워커들이 같은 시점에 다시 부딪히지 않도록
+ * 재시도는 새 트랜잭션 / 새 영속성 컨텍스트에서 해야 의미가 있으므로 이미 트랜잭션 안이면 거부한다.
+ *
+ * 메트릭 (tag name)
+ * - db.optimistic.executions (outcome = success / exhausted) : 실행 수
+ * - db.optimistic.conflicts : 충돌 수 -> conflicts / executions 가 충돌률
+ * - db.optimistic.retries : 재시도 수
+ */
+@Slf4j
+@Component
+public class OptimisticRetryTemplate {
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    public OptimisticRetryTemplate(PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${optimistic-retry.max-attempts:5}") int maxAttempts,
+                                   @Value("${optimistic-retry.initial-backoff:5ms}") Duration initialBackoff,
+                                   @Value("${optimistic-retry.max-backoff:200ms}") Duration maxBackoff) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    public <T> T execute(String name, TransactionCallback<T> action) {
+        try {
+            return retry(name, maxAttempts, () -> transactionTemplate.execute(action));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e); // TransactionTemplate 은 checked 예외를 던지지 않음
+        }
+    }
+
+    public void executeWithoutResult(String name, Consumer<TransactionStatus> action) {
+        execute(name, status -> {
+            action.accept(status);
+            return null;
+        });
+    }
+
+    /**
+     * attempt 를 최대 maxAttempts 번 실행 (@OptimisticRetry 는 이 메서드로 @Transactional 메서드 호출을 감싼다)
+     * @param maxAttempts 0 이하면 optimistic-retry.max-attempts
+     */
+    public <T> T retry(String name, int maxAttempts, ThrowingSupplier<T> attempt) throws Exception {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalTransactionStateException("optimistic retry [" + name + "] must start outside of a transaction");
+        }
+        int limit = maxAttempts > 0 ? maxAttempts : this.maxAttempts;
+        for (int n = 1; ; n++) {
+            try {
+                T result = attempt.getWithException();
+                meterRegistry.counter("db.optimistic.executions", "name", name, "outcome", "success").increment();
+                return result;
+            } catch (Exception e) {
+                if (!isOptimisticConflict(e)) {
+                    throw e;
+                }
+                meterRegistry.counter("db.optimistic.conflicts", "name", name).increment();
+                if (n >= limit) {
+                    meterRegistry.counter("db.optimistic.executions", "name", name, "outcome", "exhausted").increment();
+                    log.warn("optimistic retry [{}] gave up after {} attempts", name, n);
+                    throw e;
+                }
+                meterRegistry.counter("db.optimistic.retries", "name", name).increment();
+                backoff(n);
+            }
+        }
+    }
+
+    private static boolean isOptimisticConflict(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof OptimisticLockingFailureException
+                    || t instanceof OptimisticLockException
+                    || t instanceof StaleStateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void backoff(int attempt) {
+        long cap = Math.min(maxBackoff.toNanos(), initialBackoff.toNanos() << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(Duration.ofNanos(ThreadLocalRandom.current().nextLong(cap + 1)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("optimistic retry interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package study.data_jpa.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_jpa.entity.BulkJob;
+import study.data_jpa.repository.BulkJobRepository;
+import study.data_jpa.repository.MemberRepository;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * MemberRepository.bulkAgePlus 의 청크 버전
+ * 단일 update 는 끝날 때까지 조건에 걸린 모든 row 를 잠그므로, member_id 범위를 chunkSize 개씩 잘라서
+ * 청크마다 별도 트랜잭션으로 커밋한다 -> 동시에 쓰는 쪽은 길어야 청크 하나만큼만 기다림
+ * 체크포인트(BulkJob) 는 청크 update 와 같은 트랜잭션에서 갱신되므로 중간에 죽으면 같은 jobName 으로 다시 호출해서 이어간다.
+ * 청크마다 새 트랜잭션(REQUIRES_NEW) 을 열기 때문에 바깥 트랜잭션 안에서 호출하지 않는다.
+ */
+@Slf4j
+@Service
+public class MemberBulkUpdateService {
+
+    private final MemberRepository memberRepository;
+    private final BulkJobRepository bulkJobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultChunkSize;
+    private final Duration pause;
+
+    public MemberBulkUpdateService(MemberRepository memberRepository,
+                                   BulkJobRepository bulkJobRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${bulk-update.chunk-size:1000}") int defaultChunkSize,
+                                   @Value("${bulk-update.pause:0ms}") Duration pause) {
+        this.memberRepository = memberRepository;
+        this.bulkJobRepository = bulkJobRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.defaultChunkSize = defaultChunkSize;
+        this.pause = pause;
+    }
+
+    public BulkJob bulkAgePlus(String jobName, int age) {
+        return bulkAgePlus(jobName, age, defaultChunkSize, job -> {});
+    }
+
+    /**
+     * @param progress 청크가 커밋될 때마다 호출 (트랜잭션 밖) - 예외를 던지면 그 청크까지 반영된 채로 중단된다
+     * @return 완료된 체크포인트 (이미 완료된 jobName 이면 아무것도 하지 않고 그대로 반환)
+     */
+    public BulkJob bulkAgePlus(String jobName, int age, int chunkSize, Consumer<BulkJob> progress) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive : " + chunkSize);
+        }
+        String parameter = "age >= " + age;
+        BulkJob job = transactionTemplate.execute(status -> bulkJobRepository.findById(jobName)
+                .orElseGet(() -> bulkJobRepository.save(new BulkJob(jobName, parameter))));
+        if (!parameter.equals(job.getParameter())) {
+            throw new IllegalStateException("job " + jobName + " was started with [" + job.getParameter() + "], not [" + parameter + "]");
+        }
+
+        long startNanos = System.nanoTime();
+        while (!job.isCompleted()) {
+            job = transactionTemplate.execute(status -> {
+                BulkJob current = bulkJobRepository.findForUpdate(jobName).orElseThrow();
+                if (current.isCompleted()) {
+                    return current;
+                }
+                Long endId = memberRepository.findChunkEndId(current.getLastId(), chunkSize);
+                if (endId == null) {
+                    current.complete();
+                } else {
+                    current.advance(endId, memberRepository.bulkAgePlusInRange(age, current.getLastId(), endId));
+                }
+                return current;
+            });
+            log.debug("bulk job {} : chunk={}, lastId={}, processed={}", jobName, job.getChunks(), job.getLastId(), job.getProcessed());
+            progress.accept(job);
+            if (!job.isCompleted()) {
+                pause();
+            }
+        }
+        log.info("bulk job {} done : {} rows in {} chunks ({} ms)", jobName, job.getProcessed(), job.getChunks(),
+                Duration.ofNanos(System.nanoTime() - startNanos).toMillis());
+        return job;
+    }
+
+    // 청크 사이에 잠깐 쉬어서 대기 중인 쓰기 트랜잭션에 자리를 내준다 (기본 0)
+    private void pause() {
+        if (pause.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(pause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("bulk job interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package study.data_jpa.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_jpa.dto.MemberDTO;
+import study.data_jpa.repository.MemberRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class MemberExportService {
+
+    private static final int FLUSH_INTERVAL = 1000;
+
+    private final MemberRepository memberRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 회원 전체를 NDJSON (한 줄에 json 하나) 으로 내보낸다.
+     * 스트림은 트랜잭션이 열려있는 동안만 읽을 수 있으므로 이 메서드 안에서 끝까지 소비한다.
+     */
+    @Transactional(readOnly = true)
+    public long exportNdjson(OutputStream out) {
+        long count = 0;
+        try (Stream<MemberDTO> stream = memberRepository.streamMemberDto()) {
+            Iterator<MemberDTO> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(iterator.next()));
+                out.write('\n');
+                if (++count % FLUSH_INTERVAL == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,27 @@
+package study.data_jpa.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_jpa.entity.Member;
+import study.data_jpa.repository.MemberRepository;
+import study.data_jpa.retry.OptimisticRetry;
+
+@Service
+@RequiredArgsConstructor
+public class MemberService {
+
+    private final MemberRepository memberRepository;
+
+    /**
+     * 조회 -> 수정 -> 커밋 시 version 비교. 다른 트랜잭션이 먼저 바꿨으면 처음부터 다시 (select for update 로 줄 세우지 않음)
+     */
+    @OptimisticRetry
+    @Transactional
+    public int addAge(Long memberId, int delta) {
+        Member member = memberRepository.findById(memberId)
+                .orElseThrow(() -> new IllegalArgumentException("member not found : " + memberId));
+        member.setAge(member.getAge() + delta);
+        return member.getAge();
+    }
+}
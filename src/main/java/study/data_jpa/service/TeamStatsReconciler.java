@@ -0,0 +1,120 @@
+package study.data_jpa.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * team_stats 가 member 전체 재계산과 같은지 확인 (team-stats.reconcile-cron 마다, 직접 호출도 가능)
+ * 어긋나는 경우 : 엔티티 / TeamStatsDelta 를 거치지 않은 sql, 스프링 트랜잭션 밖의 flush, 이전 값을 모르는 update 등
+ * 비교는 primary 에서 읽고 (복제 지연을 어긋남으로 보지 않도록 readOnly 가 아닌 트랜잭션),
+ * 고칠 때는 비교 시점의 값이 아니라 그 순간의 member 로 다시 계산한다 -> 비교와 수정 사이의 변경도 반영됨
+ */
+@Slf4j
+@Service
+public class TeamStatsReconciler {
+
+    private static final String EXPECTED_SQL = "select t.team_id, count(m.member_id), coalesce(sum(m.age), 0)" +
+            " from team t left join member m on m.team_id = t.team_id group by t.team_id";
+    private static final String ACTUAL_SQL = "select team_id, member_count, age_sum from team_stats";
+    private static final String INSERT_SQL = "insert into team_stats (team_id, member_count, age_sum)" +
+            " select ?, count(*), coalesce(sum(age), 0) from member where team_id = ?";
+    private static final String RECOMPUTE_SQL = "update team_stats set" +
+            " member_count = (select count(*) from member where team_id = ?)," +
+            " age_sum = (select coalesce(sum(age), 0) from member where team_id = ?)" +
+            " where team_id = ?";
+    private static final String DELETE_SQL = "delete from team_stats where team_id = ?";
+
+    /**
+     * @param actual team_stats 값 (row 가 없으면 null)
+     * @param expected 재계산 값 (팀이 없으면 null)
+     */
+    public record Drift(Long teamId, Counts actual, Counts expected) {
+    }
+
+    public record Counts(long memberCount, long ageSum) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean repair;
+    private final Counter drifted;
+
+    public TeamStatsReconciler(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${team-stats.repair:true}") boolean repair) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.repair = repair;
+        this.drifted = meterRegistry.counter("team.stats.drift");
+    }
+
+    @Scheduled(cron = "${team-stats.reconcile-cron:-}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    /**
+     * @return 어긋난 팀 (team-stats.repair 이면 반환 전에 고쳐져 있음)
+     */
+    public List<Drift> reconcile() {
+        List<Drift> drifts = transactionTemplate.execute(status -> findDrifts());
+        if (drifts == null || drifts.isEmpty()) {
+            return List.of();
+        }
+        drifted.increment(drifts.size());
+        log.warn("team_stats drift : {} teams (repair={}) {}", drifts.size(), repair, drifts.subList(0, Math.min(10, drifts.size())));
+        if (repair) {
+            transactionTemplate.executeWithoutResult(status -> drifts.forEach(this::fix));
+        }
+        return drifts;
+    }
+
+    private List<Drift> findDrifts() {
+        Map<Long, Counts> expected = counts(EXPECTED_SQL);
+        Map<Long, Counts> actual = counts(ACTUAL_SQL);
+        TreeSet<Long> teamIds = new TreeSet<>(expected.keySet());
+        teamIds.addAll(actual.keySet());
+
+        List<Drift> drifts = new ArrayList<>();
+        for (Long teamId : teamIds) {
+            if (!Objects.equals(actual.get(teamId), expected.get(teamId))) {
+                drifts.add(new Drift(teamId, actual.get(teamId), expected.get(teamId)));
+            }
+        }
+        return drifts;
+    }
+
+    private Map<Long, Counts> counts(String sql) {
+        Map<Long, Counts> counts = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            counts.put(rs.getLong(1), new Counts(rs.getLong(2), rs.getLong(3)));
+        });
+        return counts;
+    }
+
+    private void fix(Drift drift) {
+        Long teamId = drift.teamId();
+        if (drift.expected() == null) {
+            jdbcTemplate.update(DELETE_SQL, teamId);
+        } else if (drift.actual() == null) {
+            jdbcTemplate.update(INSERT_SQL, teamId, teamId);
+        } else {
+            jdbcTemplate.update(RECOMPUTE_SQL, teamId, teamId, teamId);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package study.data_jpa;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.TestExecutionListener;
+import study.data_jpa.repository.MemberUsernameCache;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * 테스트 메서드 실행 전에 H2 의 모든 테이블과 2차 캐시를 비운다.
+ * @Rollback(false) 테스트가 커밋한 데이터가 다음 테스트의 결과에 섞이지 않도록 하기 위함
+ */
+public class DatabaseCleanupListener implements TestExecutionListener, Ordered {
+
+    @Override
+    public void beforeTestMethod(TestContext testContext) {
+        if (!testContext.hasApplicationContext()) {
+            return;
+        }
+        DataSource dataSource = testContext.getApplicationContext().getBeanProvider(DataSource.class).getIfAvailable();
+        if (dataSource == null) {
+            return;
+        }
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        List<String> tables = jdbcTemplate.queryForList(
+                "select table_name from information_schema.tables where table_schema = 'public' and table_type = 'BASE TABLE'",
+                String.class);
+
+        jdbcTemplate.execute("set referential_integrity false");
+        for (String table : tables) {
+            jdbcTemplate.execute("truncate table " + table + " restart identity");
+        }
+        jdbcTemplate.execute("set referential_integrity true");
+
+        // jdbc 로 지운 데이터가 2차 캐시에 남아있지 않도록
+        testContext.getApplicationContext().getBeanProvider(EntityManagerFactory.class)
+                .ifAvailable(emf -> emf.getCache().evictAll());
+        testContext.getApplicationContext().getBeanProvider(MemberUsernameCache.class)
+                .ifAvailable(MemberUsernameCache::evictAll);
+    }
+
+    @Override
+    public int getOrder() {
+        // 트랜잭션 시작(TransactionalTestExecutionListener) 보다 먼저 실행
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
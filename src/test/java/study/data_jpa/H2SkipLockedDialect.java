@@ -0,0 +1,15 @@
+package study.data_jpa;
+
+import org.hibernate.dialect.H2Dialect;
+
+/**
+ * H2 2.x 는 for update skip locked 를 지원하지만 hibernate H2Dialect 는 지원하지 않는다고 보고해서
+ * lock timeout -2 가 일반 for update (대기) 로 바뀐다 -> 테스트에서 MySQL 8 과 같은 sql 이 나가도록 켜준다
+ */
+public class H2SkipLockedDialect extends H2Dialect {
+
+    @Override
+    public boolean supportsSkipLocked() {
+        return true;
+    }
+}
@@ -0,0 +1,20 @@
+package study.data_jpa;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 테스트 메서드가 실행할 수 있는 최대 sql 수 (QueryBudgetExtension 이 검증)
+ * 커밋 시점의 flush 는 테스트 메서드가 끝난 뒤에 일어나므로 포함되지 않는다.
+ * 시퀀스 조회는 세지 않는다 (pooled 시퀀스는 앞선 테스트가 남긴 구간에 따라 조회 여부가 달라져서 테스트 순서에 따라 결과가 바뀜).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    int value(); // 최대 sql 수 (시퀀스 조회 제외)
+
+    int maxRepeats() default Integer.MAX_VALUE; // 같은 모양 sql 의 최대 반복 횟수 (N + 1 검출)
+}
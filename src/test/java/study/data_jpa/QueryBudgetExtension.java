@@ -0,0 +1,65 @@
+package study.data_jpa;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import study.data_jpa.monitor.SqlStats;
+import study.data_jpa.monitor.SqlStatsContext;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * @QueryBudget 이 붙은 테스트 메서드의 sql 실행 수를 세서, 예산을 넘으면 실패시킨다.
+ * 시퀀스 조회 (next value for) 는 실행 수 / 반복 횟수 모두에서 뺀다.
+ */
+public class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(QueryBudgetExtension.class);
+    private static final Pattern SEQUENCE_CALL = Pattern.compile("(?i)next value for|nextval\\(");
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        if (budget(context) != null) {
+            context.getStore(NAMESPACE).put(context.getUniqueId(), SqlStatsContext.open("test", context.getDisplayName()));
+        }
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        SqlStats stats = context.getStore(NAMESPACE).remove(context.getUniqueId(), SqlStats.class);
+        if (stats == null) {
+            return;
+        }
+        SqlStatsContext.close(stats);
+
+        QueryBudget budget = budget(context);
+        Map<String, Integer> shapes = new LinkedHashMap<>(stats.getShapes());
+        int sequenceCalls = shapes.entrySet().stream()
+                .filter(shape -> SEQUENCE_CALL.matcher(shape.getKey()).find())
+                .mapToInt(Map.Entry::getValue).sum();
+        shapes.keySet().removeIf(sql -> SEQUENCE_CALL.matcher(sql).find());
+        int statements = stats.getStatements() - sequenceCalls;
+        if (statements > budget.value()) {
+            fail("sql 예산 초과 : " + statements + " > " + budget.value() + "\n" + describe(shapes));
+        }
+        int maxRepeats = shapes.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+        if (maxRepeats > budget.maxRepeats()) {
+            shapes.values().removeIf(count -> count <= budget.maxRepeats());
+            fail("같은 sql 반복 (N + 1 의심) : " + maxRepeats + " > " + budget.maxRepeats() + "\n" + describe(shapes));
+        }
+    }
+
+    private QueryBudget budget(ExtensionContext context) {
+        return context.getTestMethod().map(method -> method.getAnnotation(QueryBudget.class)).orElse(null);
+    }
+
+    private String describe(Map<String, Integer> shapes) {
+        StringBuilder builder = new StringBuilder();
+        shapes.forEach((sql, count) -> builder.append("  ").append(count).append("x ").append(sql).append('\n'));
+        return builder.toString();
+    }
+}
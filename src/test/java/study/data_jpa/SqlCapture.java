@@ -0,0 +1,34 @@
+package study.data_jpa;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 테스트에서 hibernate 가 만든 sql 모양을 검증하기 위한 StatementInspector
+ * (test application.properties 의 hibernate.session_factory.statement_inspector 로 등록)
+ */
+public class SqlCapture implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> captured = new ThreadLocal<>();
+
+    public static void start() {
+        captured.set(new ArrayList<>());
+    }
+
+    public static List<String> stop() {
+        List<String> sqls = captured.get();
+        captured.remove();
+        return sqls == null ? List.of() : sqls;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> sqls = captured.get();
+        if (sqls != null) {
+            sqls.add(sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,63 @@
+package study.data_jpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import study.data_jpa.entity.Member;
+import study.data_jpa.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// 자리 1 개 : 다른 요청이 자리를 잡고 있으면 max-wait 뒤 503
+// MockMvc 는 asyncDispatch 를 요청해야 async 를 complete 하므로 그 전까지 export 가 진행 중인 상태로 볼 수 있다
+@SpringBootTest(properties = {
+        "db-limiter.permits=1",
+        "db-limiter.max-wait=50ms",
+        "spring.datasource.url=jdbc:h2:mem:db_limiter;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+class DbConcurrencyLimitFilterTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("export (StreamingResponseBody) 는 async 가 끝날 때까지 자리를 잡고 있다")
+    public void exportHoldsPermitUntilAsyncCompletes() throws Exception {
+        memberRepository.save(new Member("member1", 10));
+
+        MvcResult export = mockMvc.perform(get("/members/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        export.getAsyncResult(); // 스트리밍 본문 실행이 끝날 때까지 대기 (async 는 아직 complete 전)
+        assertThat(active()).isEqualTo(1);
+
+        mockMvc.perform(get("/members")).andExpect(status().isServiceUnavailable());
+
+        mockMvc.perform(asyncDispatch(export)).andExpect(status().isOk()); // async complete -> 자리 반납
+        assertThat(active()).isZero();
+        mockMvc.perform(get("/members")).andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("동기 요청은 끝나면 바로 자리 반납")
+    public void syncRequestReleasesPermit() throws Exception {
+        mockMvc.perform(get("/members")).andExpect(status().isOk());
+        mockMvc.perform(get("/members")).andExpect(status().isOk());
+        assertThat(active()).isZero();
+    }
+
+    private double active() {
+        return meterRegistry.get("db.limiter.active").gauge().value();
+    }
+}
@@ -0,0 +1,165 @@
+package study.data_jpa.datasource;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.data_jpa.entity.Member;
+import study.data_jpa.repository.MemberRepository;
+import study.data_jpa.repository.MemberUsernameCache;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * H2 메모리 db 두 개 (primary / replica) 로 라우팅 확인
+ * 실제 복제는 없으므로 replicate() 가 primary 의 스키마 + 데이터를 replica 로 복사한다 -> 복사 전에는 "복제 지연" 상태
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing_primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "datasource-routing.replicas[0].url=" + RoutingDataSourceTest.REPLICA_URL
+})
+@AutoConfigureMockMvc
+@Import(RoutingDataSourceTest.ReadThenWriteController.class)
+class RoutingDataSourceTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired DataSource dataSource;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MockMvc mockMvc;
+    @Autowired MemberUsernameCache usernameCache;
+    @Autowired EntityManagerFactory emf;
+
+    @BeforeEach
+    void setUp() {
+        replicate();
+        PrimaryStickiness.clear();
+    }
+
+    @Test
+    @DisplayName("readOnly 트랜잭션은 replica, 쓰기는 primary")
+    public void readOnlyGoesToReplica() {
+        memberRepository.save(new Member("member1", 10));
+        PrimaryStickiness.clear(); // 다음 요청
+
+        assertThat(memberRepository.count()).isZero(); // SimpleJpaRepository.count = readOnly -> 아직 복제 안 된 replica
+        transactionTemplate.executeWithoutResult(status -> assertThat(memberRepository.count()).isEqualTo(1)); // 읽기 / 쓰기 트랜잭션
+
+        replicate();
+        assertThat(memberRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("쓰기 커밋 후 같은 요청 안의 읽기는 primary 에 고정")
+    public void stickyPrimaryAfterWrite() {
+        memberRepository.save(new Member("member1", 10));
+
+        assertThat(memberRepository.count()).isEqualTo(1); // 방금 쓴 데이터가 보임
+
+        PrimaryStickiness.clear(); // 요청 종료 (PrimaryStickinessFilter)
+        assertThat(memberRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("sticky-window 가 지나면 primary 고정 해제")
+    public void stickyWindowExpires() throws Exception {
+        PrimaryStickiness.markWrite(java.time.Duration.ofMillis(10));
+        assertThat(PrimaryStickiness.isSticky()).isTrue();
+        Thread.sleep(20);
+        assertThat(PrimaryStickiness.isSticky()).isFalse();
+    }
+
+    @Test
+    @DisplayName("open-in-view 요청 안에서도 트랜잭션마다 라우팅 (readOnly 조회 다음의 쓰기는 primary)")
+    public void routesEachTransactionInOneRequest() throws Exception {
+        String databases = mockMvc.perform(post("/routing-test/read-then-write"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] used = databases.split(",");
+        assertThat(used[0]).isEqualToIgnoringCase("routing_replica"); // readOnly 조회
+        assertThat(used[1]).isEqualToIgnoringCase("routing_primary"); // 쓰기
+
+        transactionTemplate.executeWithoutResult(status -> assertThat(memberRepository.count()).isEqualTo(1));
+    }
+
+    @Test
+    @DisplayName("replica 가 지연돼도 username -> id 캐시는 primary 에서 채운다")
+    public void usernameCacheLoadsFromPrimary() {
+        Member member = memberRepository.save(new Member("member1", 10));
+        PrimaryStickiness.clear(); // 다음 요청, replica 는 아직 복제 전
+
+        memberRepository.findListByUsername("member1"); // readOnly -> replica 트랜잭션에서 캐시 miss
+
+        assertThat(usernameCache.get("member1", username -> List.of())).containsExactly(member.getId());
+    }
+
+    @Test
+    @DisplayName("replica 에서 읽은 엔티티는 2차 캐시에 넣지 않는다")
+    public void replicaReadsDoNotFillSecondLevelCache() {
+        Long id = memberRepository.save(new Member("member1", 10)).getId();
+        replicate();
+        transactionTemplate.executeWithoutResult(status -> memberRepository.findById(id).orElseThrow().setAge(20));
+        emf.getCache().evict(Member.class); // 쓰기 쪽의 evict (벌크 update 등)
+        PrimaryStickiness.clear();
+
+        assertThat(memberRepository.findById(id).orElseThrow().getAge()).isEqualTo(10); // 지연된 replica
+        assertThat(emf.getCache().contains(Member.class, id)).isFalse();
+
+        transactionTemplate.executeWithoutResult(status -> memberRepository.findById(id)); // primary
+        assertThat(emf.getCache().contains(Member.class, id)).isTrue();
+    }
+
+    // 한 요청 안에서 readOnly 트랜잭션 -> 쓰기 트랜잭션, 각 트랜잭션의 커넥션이 붙어 있는 db 이름을 반환
+    @RestController
+    @RequiredArgsConstructor
+    static class ReadThenWriteController {
+
+        private final EntityManager em;
+        private final MemberRepository memberRepository;
+        private final PlatformTransactionManager transactionManager;
+
+        @PostMapping("/routing-test/read-then-write")
+        public String readThenWrite() {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            String read = readOnly.execute(status -> currentDatabase());
+            String write = new TransactionTemplate(transactionManager).execute(status -> {
+                memberRepository.save(new Member("member1", 10));
+                return currentDatabase();
+            });
+            return read + "," + write;
+        }
+
+        private String currentDatabase() {
+            return (String) em.createNativeQuery("select database()").getSingleResult();
+        }
+    }
+
+    // primary 의 스키마 + 데이터를 replica 로 통째로 복사
+    private void replicate() {
+        List<String> script = new JdbcTemplate(dataSource).queryForList("script", String.class);
+        JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        replica.execute("drop all objects");
+        script.forEach(replica::execute);
+    }
+}
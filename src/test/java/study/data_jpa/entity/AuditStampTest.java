@@ -0,0 +1,60 @@
+package study.data_jpa.entity;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_jpa.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class AuditStampTest {
+
+    @Autowired EntityManager em;
+    @Autowired ItemRepository itemRepository;
+
+    @Test
+    @DisplayName("같은 flush 로 insert 되는 엔티티는 같은 시각, 다음 flush 의 update 는 새 시각")
+    public void stampPerFlush() throws Exception {
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            teams.add(team);
+        }
+        Item item = new Item("A");
+        assertThat(item.isNew()).isTrue();
+        itemRepository.save(item);
+        assertThat(teams.get(0).getCreatedDate()).isNull(); // 값은 insert 되는 flush 에서 채워진다
+        em.flush();
+
+        LocalDateTime created = teams.get(0).getCreatedDate();
+        assertThat(created).isNotNull();
+        assertThat(teams).allSatisfy(team -> {
+            assertThat(team.getCreatedDate()).isEqualTo(created);
+            assertThat(team.getUpdatedDate()).isEqualTo(created);
+        });
+        assertThat(item.getCreatedDate()).isEqualTo(created);
+        assertThat(item.isNew()).isFalse();
+
+        Thread.sleep(5);
+        teams.get(1).setName("renamed");
+        em.flush();
+        em.clear();
+
+        Team updated = em.find(Team.class, teams.get(1).getId());
+        Team untouched = em.find(Team.class, teams.get(2).getId());
+        assertThat(updated.getCreatedDate()).isEqualTo(created); // db 에도 같은 값 (insert 값 배열까지 바뀜)
+        assertThat(updated.getUpdatedDate()).isAfter(created);
+        assertThat(untouched.getUpdatedDate()).isEqualTo(created);
+        assertThat(em.find(Item.class, "A").getCreatedDate()).isEqualTo(created);
+    }
+}
@@ -0,0 +1,122 @@
+package study.data_jpa.loader;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.data_jpa.dto.MemberDTO;
+import study.data_jpa.entity.Member;
+import study.data_jpa.repository.MemberRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// window 는 테스트가 끝날 때까지 만료되지 않을 만큼 길게 -> batch 는 키가 max-batch-size 개 모일 때만 조회 (타이밍과 상관없이 결과가 같다)
+// 설정이 달라서 컨텍스트가 따로 뜨므로 db 도 따로 쓴다 (같은 db 면 ddl-auto 가 다른 컨텍스트가 쓰는 sequence 를 다시 만듦)
+@SpringBootTest(properties = {
+        "member-loader.window=1m",
+        "member-loader.max-batch-size=41",
+        "spring.datasource.url=jdbc:h2:mem:member_loader;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+})
+class MemberLoaderTest {
+
+    @Autowired MemberLoader memberLoader;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("동시에 들어온 id 조회를 모아서 한 번에 조회하고 각 요청에 자기 회원을 돌려준다")
+    public void coalesce() throws Exception {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            members.add(new Member("member" + i, i));
+        }
+        memberRepository.saveAll(members);
+        long firstId = members.get(0).getId();
+        double batchesBefore = meterRegistry.counter("loader.batches", "name", "member").count();
+
+        int requests = 120; // 40 명을 3 번씩 -> 키 40 개라 아직 조회하지 않고 대기
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BatchLoader.Loaded<MemberDTO>>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                long id = firstId + i % 40;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return memberLoader.load(id);
+                }));
+            }
+            start.countDown();
+            awaitPending(requests);
+
+            // 41 번째 키 (없는 id) 로 batch 가 차서 121 개 요청을 한 번에 조회
+            BatchLoader.Loaded<MemberDTO> missing = memberLoader.load(firstId + 40);
+            assertThat(missing.value()).isNull();
+            assertThat(missing.coalesced()).isEqualTo(requests + 1);
+        }
+
+        for (int i = 0; i < requests; i++) {
+            BatchLoader.Loaded<MemberDTO> loaded = futures.get(i).get();
+            assertThat(loaded.value().getId()).isEqualTo(firstId + i % 40);
+            assertThat(loaded.value().getUsername()).isEqualTo("member" + i % 40);
+            assertThat(loaded.coalesced()).isEqualTo(requests + 1);
+        }
+        double batches = meterRegistry.counter("loader.batches", "name", "member").count() - batchesBefore;
+        assertThat(batches).isEqualTo(1);
+    }
+
+    // 요청 스레드들이 모두 batch 에 들어갈 때까지 대기
+    private void awaitPending(int expected) throws InterruptedException {
+        Gauge pending = meterRegistry.get("loader.pending").tag("name", "member").gauge();
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (pending.value() < expected) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    @DisplayName("maxBatchSize 에 닿으면 window 전에 조회하고, 조회 실패는 기다리던 요청 모두에게 전달")
+    public void maxBatchSizeAndFailure() throws Exception {
+        List<Integer> batchSizes = new ArrayList<>();
+        try (BatchLoader<Integer, String> loader = new BatchLoader<>("test", keys -> {
+            synchronized (batchSizes) {
+                batchSizes.add(keys.size());
+            }
+            if (keys.contains(-1)) {
+                throw new IllegalStateException("db down");
+            }
+            Map<Integer, String> values = new HashMap<>();
+            keys.forEach(k -> values.put(k, "v" + k));
+            return values;
+        }, Duration.ofSeconds(10), 3, 1, new SimpleMeterRegistry())) {
+            // window 10 초 -> 3 개가 모여야 조회된다
+            CompletableFuture<BatchLoader.Loaded<String>> a = loader.loadAsync(1);
+            CompletableFuture<BatchLoader.Loaded<String>> b = loader.loadAsync(2);
+            CompletableFuture<BatchLoader.Loaded<String>> c = loader.loadAsync(2); // 같은 키 -> 한 번만 조회
+            CompletableFuture<BatchLoader.Loaded<String>> d = loader.loadAsync(3);
+            assertThat(a.get().value()).isEqualTo("v1");
+            assertThat(c.get()).isEqualTo(b.get());
+            assertThat(d.get().coalesced()).isEqualTo(4);
+            assertThat(batchSizes).containsExactly(3);
+
+            loader.loadAsync(4);
+            loader.loadAsync(5);
+            assertThatThrownBy(() -> loader.load(-1)).isInstanceOf(IllegalStateException.class).hasMessage("db down");
+        }
+    }
+}
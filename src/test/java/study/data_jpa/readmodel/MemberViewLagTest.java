@@ -0,0 +1,78 @@
+package study.data_jpa.readmodel;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import study.data_jpa.controller.MemberController;
+import study.data_jpa.datasource.PrimaryStickiness;
+import study.data_jpa.dto.MemberDTO;
+import study.data_jpa.dto.MemberSearchCondition;
+import study.data_jpa.entity.Member;
+import study.data_jpa.entity.Team;
+import study.data_jpa.repository.MemberProjection;
+import study.data_jpa.repository.MemberRepository;
+import study.data_jpa.repository.MemberViewRepository;
+import study.data_jpa.repository.TeamRepository;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// batch-window 를 테스트보다 길게 -> 시작 시 재구성 (바로 반영) 뒤의 변경은 반영되지 않고 지연이 max-lag 를 넘는다
+@SpringBootTest(properties = {
+        "member-view.enabled=true",
+        "member-view.batch-window=10m",
+        "member-view.max-lag=50ms",
+        "spring.datasource.url=jdbc:h2:mem:member_view_lag;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+})
+class MemberViewLagTest {
+
+    @Autowired MemberViewSync memberViewSync;
+    @Autowired MemberViewRepository memberViewRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired MemberController memberController;
+    @Autowired MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("반영 지연이 max-lag 를 넘으면 목록 / projection / 검색을 join 쿼리로 조회")
+    public void fallsBackToJoinWhenLagging() throws InterruptedException {
+        assertThat(memberViewSync.awaitIdle(Duration.ofSeconds(10))).isTrue(); // 시작 시 재구성
+        Team teamA = teamRepository.save(new Team("teamA"));
+        memberRepository.save(new Member("member1", 10, teamA));
+        PrimaryStickiness.clear(); // 다른 요청의 조회 (read-after-write 아님)
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (memberViewSync.isFresh()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+        assertThat(memberViewSync.lag()).isGreaterThan(Duration.ofMillis(50));
+        assertThat(memberViewRepository.count()).isZero(); // 아직 반영 안 됨
+
+        double viewBefore = reads("view");
+        double joinBefore = reads("join");
+        PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("team.name"));
+        assertThat(memberController.list(pageRequest, true).getContent())
+                .extracting(MemberDTO::getUsername, MemberDTO::getTeamName)
+                .containsExactly(tuple("member1", "teamA"));
+        assertThat(memberController.listProjection(pageRequest, false).getContent())
+                .extracting(MemberProjection::getTeamName)
+                .containsExactly("teamA");
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        assertThat(memberController.search(condition, null, 10).getContent()).hasSize(1);
+
+        assertThat(reads("join") - joinBefore).isEqualTo(3);
+        assertThat(reads("view") - viewBefore).isZero();
+    }
+
+    private double reads(String source) {
+        return meterRegistry.counter("member.view.reads", "source", source).count();
+    }
+}
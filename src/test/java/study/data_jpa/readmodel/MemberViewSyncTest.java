@@ -0,0 +1,225 @@
+package study.data_jpa.readmodel;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import study.data_jpa.controller.MemberController;
+import study.data_jpa.datasource.PrimaryStickiness;
+import study.data_jpa.dto.MemberDTO;
+import study.data_jpa.dto.MemberSearchCondition;
+import study.data_jpa.dto.MemberSearchDTO;
+import study.data_jpa.entity.Member;
+import study.data_jpa.entity.MemberView;
+import study.data_jpa.entity.Team;
+import study.data_jpa.repository.MemberProjection;
+import study.data_jpa.repository.MemberRepository;
+import study.data_jpa.repository.MemberTeamSearchRow;
+import study.data_jpa.repository.MemberViewRepository;
+import study.data_jpa.repository.TeamRepository;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 동기화를 켠 컨텍스트가 따로 뜨므로 db 도 따로 쓴다, 워커가 커밋된 변경만 읽으므로 테스트는 트랜잭션 없이 커밋
+@SpringBootTest(properties = {
+        "member-view.enabled=true",
+        "member-view.batch-window=5ms",
+        "member-view.rebuild-chunk-size=3",
+        "spring.datasource.url=jdbc:h2:mem:member_view;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+})
+class MemberViewSyncTest {
+
+    // 원본과 다른 row 수 : 빠졌거나 값이 다른 회원 + 원본에 없는 view row
+    private static final String DIFF = "select (select count(*) from member m left join team t on t.team_id = m.team_id" +
+            " left join member_view v on v.member_id = m.member_id" +
+            " where v.member_id is null or v.username <> m.username or v.age <> m.age" +
+            " or coalesce(v.team_id, 0) <> coalesce(m.team_id, 0) or coalesce(v.team_name, '') <> coalesce(t.name, ''))" +
+            " + (select count(*) from member_view v where not exists (select 1 from member m where m.member_id = v.member_id))";
+
+    @Autowired MemberViewSync memberViewSync;
+    @Autowired MemberViewRepository memberViewRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired MemberController memberController;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void awaitStartup() throws InterruptedException {
+        assertThat(memberViewSync.awaitIdle(Duration.ofSeconds(10))).isTrue();
+    }
+
+    @Test
+    @DisplayName("회원 insert / update / delete, 팀 이름 변경이 커밋 후 member_view 에 반영되고 롤백된 변경은 반영 안 됨")
+    public void entityChanges() throws InterruptedException {
+        Team teamA = teamRepository.save(new Team("teamA"));
+        Team teamB = teamRepository.save(new Team("teamB"));
+        Member member1 = memberRepository.save(new Member("member1", 10, teamA));
+        Member member2 = memberRepository.save(new Member("member2", 20, teamA));
+        Member member3 = memberRepository.save(new Member("member3", 30));
+        awaitIdle();
+
+        MemberView view1 = memberViewRepository.findById(member1.getId()).orElseThrow();
+        assertThat(view1.getUsername()).isEqualTo("member1");
+        assertThat(view1.getTeamName()).isEqualTo("teamA");
+        assertThat(memberViewRepository.findById(member3.getId()).orElseThrow().getTeamName()).isNull();
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            memberRepository.findById(member1.getId()).orElseThrow().setAge(11);
+            memberRepository.findById(member2.getId()).orElseThrow().changeTeam(teamRepository.findById(teamB.getId()).orElseThrow());
+            teamRepository.findById(teamA.getId()).orElseThrow().setName("teamA2");
+        });
+        memberRepository.deleteById(member3.getId());
+        tx.executeWithoutResult(status -> {
+            memberRepository.save(new Member("rolledBack", 40, teamA));
+            status.setRollbackOnly();
+        });
+        awaitIdle();
+
+        assertThat(memberViewRepository.findById(member1.getId()).orElseThrow())
+                .extracting(MemberView::getAge, MemberView::getTeamName)
+                .containsExactly(11, "teamA2");
+        assertThat(memberViewRepository.findById(member2.getId()).orElseThrow())
+                .extracting(MemberView::getTeamId, MemberView::getTeamName)
+                .containsExactly(teamB.getId(), "teamB");
+        assertThat(memberViewRepository.findById(member3.getId())).isEmpty();
+        assertThat(memberViewRepository.count()).isEqualTo(2);
+        assertThat(diff()).isZero();
+    }
+
+    @Test
+    @DisplayName("벌크 update (조건 / id 목록 / id 범위 / 팀 재배정) 후에도 member_view 가 원본과 같아짐")
+    public void bulkChanges() throws InterruptedException {
+        Team teamA = teamRepository.save(new Team("teamA"));
+        Team teamB = teamRepository.save(new Team("teamB"));
+        for (int i = 0; i < 10; i++) {
+            memberRepository.save(new Member("member" + i, i, i % 2 == 0 ? teamA : teamB));
+        }
+        List<Long> ids = memberRepository.findAll(Sort.by("id")).stream().map(Member::getId).toList();
+        awaitIdle();
+
+        jdbcTemplate.update("update member_view set username = 'untouched' where member_id = ?", ids.get(0)); // 조건 밖의 회원
+        memberRepository.bulkAgePlus(5); // age > 5 가 된 회원 5 명만 다시 반영 (rebuild-chunk-size 3 -> 청크 2 개), 전체 재구성 x
+        awaitIdle();
+        assertThat(diff()).isEqualTo(1); // 조건 밖의 row 는 덮어쓰지 않음
+        assertThat(memberViewRepository.findById(ids.get(0)).orElseThrow().getUsername()).isEqualTo("untouched");
+        assertThat(memberViewRepository.findById(ids.get(9)).orElseThrow().getAge()).isEqualTo(10);
+
+        memberRepository.bulkAgePlusInRange(0, ids.get(2), ids.get(5));
+        memberRepository.reassignTeam(ids.subList(0, 3), teamB.getId()); // ids.get(0) 도 다시 반영됨
+        awaitIdle();
+        assertThat(diff()).isZero();
+        assertThat(memberViewRepository.findById(ids.get(0)).orElseThrow().getTeamName()).isEqualTo("teamB");
+        assertThat(memberViewRepository.findById(ids.get(3)).orElseThrow().getAge()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("최신이면 목록 / 검색을 member_view 에서, 방금 쓰기를 커밋한 요청은 join 쿼리로 조회")
+    public void readsFromViewUnlessSticky() throws InterruptedException {
+        Team teamA = teamRepository.save(new Team("teamA"));
+        memberRepository.save(new Member("member1", 10, teamA));
+        memberRepository.save(new Member("member2", 20));
+        awaitIdle();
+        assertThat(memberViewSync.isFresh()).isTrue();
+        assertThat(PrimaryStickiness.isSticky()).isTrue(); // save 커밋이 표시한 read-after-write
+        PrimaryStickiness.clear(); // 다음 요청 (PrimaryStickinessFilter)
+
+        double viewBefore = reads("view");
+        Slice<MemberDTO> page = memberController.list(PageRequest.of(0, 10, Sort.by("username")), true);
+        assertThat(page.getContent()).extracting(MemberDTO::getTeamName).containsExactly("teamA", null);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setWithTeam(true);
+        MemberSearchDTO result = memberController.search(condition, null, 10);
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(((MemberTeamSearchRow) result.getContent().get(0)).getTeam().getName()).isEqualTo("teamA");
+        assertThat(reads("view") - viewBefore).isEqualTo(2);
+
+        double joinBefore = reads("join");
+        memberRepository.save(new Member("member3", 30)); // 커밋 -> MemberViewSync 가 read-after-write 표시 (라우팅 설정 없음)
+        assertThat(PrimaryStickiness.isSticky()).isTrue();
+        try {
+            assertThat(memberController.list(PageRequest.of(0, 10, Sort.by("username")), true).getContent())
+                    .extracting(MemberDTO::getUsername)
+                    .containsExactly("member1", "member2", "member3");
+        } finally {
+            PrimaryStickiness.clear();
+        }
+        assertThat(reads("join") - joinBefore).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("정렬 : team.name / teamName 은 member_view 와 join 쿼리에서 같은 순서, 모르는 속성은 두 경로 모두 400")
+    public void sortIsMappedForBothSources() throws InterruptedException {
+        Team teamB = teamRepository.save(new Team("teamB"));
+        Team teamA = teamRepository.save(new Team("teamA"));
+        memberRepository.save(new Member("member1", 10, teamB));
+        memberRepository.save(new Member("member2", 20, teamA));
+        awaitIdle();
+        PrimaryStickiness.clear();
+
+        for (String property : List.of("team.name", "teamName")) {
+            PageRequest pageRequest = PageRequest.of(0, 10, Sort.by(property));
+            double viewBefore = reads("view");
+            List<String> fromView = usernames(memberController.list(pageRequest, true));
+            List<String> projectionFromView = memberController.listProjection(pageRequest, false).getContent().stream()
+                    .map(MemberProjection::getUsername).toList();
+            assertThat(reads("view") - viewBefore).isEqualTo(2);
+
+            PrimaryStickiness.markWrite(Duration.ofSeconds(5)); // 방금 쓰기를 커밋한 요청 -> join 쿼리
+            try {
+                assertThat(usernames(memberController.list(pageRequest, false))).isEqualTo(fromView);
+                assertThat(memberController.listProjection(pageRequest, true).getContent())
+                        .extracting(MemberProjection::getUsername).isEqualTo(projectionFromView);
+            } finally {
+                PrimaryStickiness.clear();
+            }
+            assertThat(fromView).containsExactly("member2", "member1");
+            assertThat(projectionFromView).containsExactly("member2", "member1");
+        }
+
+        PageRequest unknown = PageRequest.of(0, 10, Sort.by("version"));
+        assertThatThrownBy(() -> memberController.list(unknown, true))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        PrimaryStickiness.markWrite(Duration.ofSeconds(5));
+        try {
+            assertThatThrownBy(() -> memberController.list(unknown, true))
+                    .isInstanceOfSatisfying(ResponseStatusException.class, e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        } finally {
+            PrimaryStickiness.clear();
+        }
+    }
+
+    private static List<String> usernames(Slice<MemberDTO> page) {
+        return page.getContent().stream().map(MemberDTO::getUsername).toList();
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        assertThat(memberViewSync.awaitIdle(Duration.ofSeconds(10))).isTrue();
+    }
+
+    private long diff() {
+        return jdbcTemplate.queryForObject(DIFF, Long.class);
+    }
+
+    private double reads(String source) {
+        return meterRegistry.counter("member.view.reads", "source", source).count();
+    }
+}
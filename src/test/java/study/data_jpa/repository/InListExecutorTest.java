@@ -0,0 +1,107 @@
+package study.data_jpa.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_jpa.entity.Member;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class InListExecutorTest {
+
+    @Autowired InListExecutor inListExecutor;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    @Test
+    @DisplayName("중복 제거 후 정해진 크기로 자르고 마지막 키로 패딩")
+    public void chunkPadding() {
+        List<Integer> keys = new ArrayList<>(IntStream.range(0, 1100).boxed().toList());
+        keys.addAll(List.of(1, 2, 3)); // 중복
+
+        List<List<Integer>> chunks = inListExecutor.chunk(keys);
+
+        assertThat(chunks).extracting(List::size).containsExactly(1024, 256); // 남은 76 개 -> 256 으로 패딩
+        assertThat(chunks.get(1)).startsWith(1024, 1025).endsWith(1099, 1099);
+        assertThat(inListExecutor.chunk(List.of(1, 2, 3))).containsExactly(
+                List.of(1, 2, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3));
+        assertThat(inListExecutor.chunk(List.of())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("트랜잭션 밖이면 청크를 동시에 조회하고 findByNames 와 같은 결과")
+    public void findByNamesInChunks() {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            members.add(new Member("member" + i, i % 100));
+        }
+        memberRepository.saveAllBatched(members);
+
+        List<String> names = IntStream.range(0, 6000).filter(i -> i % 2 == 0).mapToObj(i -> "member" + i).toList(); // 절반은 없는 이름
+
+        List<Member> result = memberRepository.findByNamesInChunks(names);
+
+        assertThat(result).hasSize(1500);
+        assertThat(result).extracting(Member::getUsername).doesNotHaveDuplicates()
+                .containsExactlyInAnyOrderElementsOf(names.stream().filter(n -> Integer.parseInt(n.substring(6)) < 3000).toList());
+        List<Long> expected = transactionTemplate.execute(status -> memberRepository.findByNames(names).stream().map(Member::getId).toList());
+        assertThat(result).extracting(Member::getId).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("동시 실행은 max-parallelism 이하, 트랜잭션 안에서는 호출 스레드에서 순서대로")
+    public void parallelismLimit() {
+        List<Integer> keys = IntStream.range(0, 1024 * 12).boxed().toList();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        List<Integer> result = inListExecutor.query(keys, chunk -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            threads.add(Thread.currentThread());
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                running.decrementAndGet();
+            }
+            return chunk.stream().distinct().toList();
+        });
+
+        assertThat(result).hasSize(keys.size()).doesNotHaveDuplicates();
+        assertThat(maxRunning.get()).isBetween(2, 4);
+        assertThat(threads).allMatch(Thread::isVirtual);
+
+        Set<Thread> inTransaction = ConcurrentHashMap.newKeySet();
+        transactionTemplate.executeWithoutResult(status -> inListExecutor.query(keys, chunk -> {
+            inTransaction.add(Thread.currentThread());
+            return chunk;
+        }));
+        assertThat(inTransaction).containsExactly(Thread.currentThread());
+    }
+
+    @Test
+    @DisplayName("청크 하나가 실패하면 그 예외를 그대로 던진다")
+    public void chunkFailure() {
+        List<Integer> keys = IntStream.range(0, 1024 * 8).boxed().toList();
+
+        assertThatThrownBy(() -> inListExecutor.query(keys, chunk -> {
+            if (chunk.contains(5000)) {
+                throw new IllegalArgumentException("bad chunk");
+            }
+            return chunk;
+        })).isInstanceOf(IllegalArgumentException.class).hasMessage("bad chunk");
+    }
+}
@@ -1,20 +1,71 @@
 package study.data_jpa.repository;
 
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.annotation.Transactional;
 import study.data_jpa.entity.Item;
 
-import static org.junit.jupiter.api.Assertions.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 class ItemRepositoryTest {
 
     @Autowired ItemRepository itemRepository;
+    @Autowired EntityManager em;
 
     @Test
     public void save() {
         Item item = new Item("A");
         itemRepository.save(item);
     }
-}
\ No newline at end of file
+
+    @Test
+    @Transactional
+    @DisplayName("persistAll : 조회 없이 insert, 같은 호출은 같은 createdDate, 중복 id 는 예외")
+    public void persistAll() {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 250; i++) { // batch_size (100) 를 넘겨서 여러 배치로
+            items.add(new Item("item" + i, "name" + i));
+        }
+
+        assertThat(itemRepository.persistAll(items)).isEqualTo(250);
+
+        assertThat(itemRepository.count()).isEqualTo(250);
+        Item found = itemRepository.findById("item7").get();
+        assertThat(found.getName()).isEqualTo("name7");
+        assertThat(found.isNew()).isFalse();
+        assertThat(found.getCreatedDate()).isEqualTo(itemRepository.findById("item249").get().getCreatedDate());
+
+        assertThatThrownBy(() -> itemRepository.persistAll(List.of(new Item("new", "new"), new Item("item0", "dup"))))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("upsertAll : 없는 id 는 insert, 있는 id 는 name 만 갱신하고 createdDate 는 유지")
+    public void upsertAll() throws Exception {
+        itemRepository.persistAll(List.of(new Item("A", "a"), new Item("B", "b")));
+        em.clear();
+        LocalDateTime created = itemRepository.findById("A").get().getCreatedDate();
+        em.clear();
+        Thread.sleep(5);
+
+        assertThat(itemRepository.upsertAll(List.of(new Item("A", "a2"), new Item("C", "c")))).isEqualTo(2);
+        em.clear();
+
+        Item a = itemRepository.findById("A").get();
+        assertThat(a.getName()).isEqualTo("a2");
+        assertThat(a.getCreatedDate()).isEqualTo(created);
+        assertThat(itemRepository.findById("B").get().getName()).isEqualTo("b");
+        assertThat(itemRepository.findById("C").get().getCreatedDate()).isAfter(created);
+    }
+}
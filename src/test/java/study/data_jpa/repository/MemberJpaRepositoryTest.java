@@ -3,10 +3,13 @@ package study.data_jpa.repository;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
+import study.data_jpa.QueryBudget;
+import study.data_jpa.QueryBudgetExtension;
 import study.data_jpa.entity.Member;
 
 import java.util.List;
@@ -14,10 +17,18 @@ import java.util.List;
 import static org.assertj.core.api.Assertions.*;
 
 @SpringBootTest
+@ExtendWith(QueryBudgetExtension.class)
 @Transactional
 @Rollback(value = false) // db 의 데이터베이스 컬럼 value 를 롤백하지 않는다.
 class MemberJpaRepositoryTest {
 
+    // 묶인 member insert 1 + 조회 1 (팀 없는 회원이라 team_stats 갱신 없음, 시퀀스 조회는 QueryBudget 이 세지 않음)
+    private static final int SAVE_AND_QUERY_BUDGET = 2;
+    // 묶인 member insert 1 + 페이지 조회 1 + count 1
+    private static final int PAGING_BUDGET = 3;
+    // flush 의 member insert 1 + team_stats 증감 1 + 벌크 update 1 + 재조회 1
+    private static final int BULK_UPDATE_BUDGET = 4;
+
     @Autowired MemberJpaRepository memberJpaRepository;
 
     @Autowired MemberRepository memberRepository;
@@ -65,6 +76,7 @@ class MemberJpaRepositoryTest {
     }
 
     @Test
+    @QueryBudget(SAVE_AND_QUERY_BUDGET)
     public void findByUsername1() {
         Member m1 = new Member("AAA", 10);
         Member m2 = new Member("AAA", 20);
@@ -95,6 +107,7 @@ class MemberJpaRepositoryTest {
     }
 
     @Test
+    @QueryBudget(SAVE_AND_QUERY_BUDGET)
     public void namedQueryTestFindByUsername() {
         Member m1 = new Member("AAA", 10);
         Member m2 = new Member("BBB", 20);
@@ -146,6 +159,7 @@ class MemberJpaRepositoryTest {
 
     @Test
     @DisplayName("페이징쿼리테스트")
+    @QueryBudget(PAGING_BUDGET)
     public void paging() {
         memberJpaRepository.save(new Member("member1", 10));
         memberJpaRepository.save(new Member("member2", 10));
@@ -169,6 +183,7 @@ class MemberJpaRepositoryTest {
 
     @Test
     @DisplayName("(JPA) 벌크 쿼리 업데이트")
+    @QueryBudget(BULK_UPDATE_BUDGET)
     public void bulkUpdate() {
         memberJpaRepository.save(new Member("member1", 10));
         memberJpaRepository.save(new Member("member2", 19));
@@ -1,33 +1,77 @@
 package study.data_jpa.repository;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.Cache;
 import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.annotation.Rollback;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_jpa.QueryBudget;
+import study.data_jpa.QueryBudgetExtension;
+import study.data_jpa.SqlCapture;
+import study.data_jpa.dto.MemberCursor;
 import study.data_jpa.dto.MemberDTO;
 import study.data_jpa.entity.Member;
 import study.data_jpa.entity.Team;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
+@ExtendWith(QueryBudgetExtension.class)
 @Transactional
 @Rollback(value = true)
 class MemberRepositoryTest {
 
+    // 시퀀스 조회는 QueryBudget 이 세지 않음 (앞선 테스트가 남긴 pooled 구간에 따라 달라짐)
+    // team insert 1 + member insert 1 + team_stats insert 1 + team_stats 증감 1 (TeamStatsListener, flush 당 batch 하나씩) + 조회 1
+    private static final int TEAM_MEMBER_QUERY_BUDGET = 5;
+    // team / member insert 2 + team_stats insert / 증감 2 + jpql slice 2 페이지 + native slice 2 페이지 (count 없음)
+    private static final int SLICE_BUDGET = 8;
+    // insert 25 (team 500 / 100 + member 2000 / 100) + team_stats insert / 증감 2 + member 조회 1 + count 1 + team batch 500 / 100
+    private static final int BATCH_FETCH_BUDGET = 34;
+    // 가장 많이 반복되는 sql 은 member insert batch (2000 / 100), team 조회는 5 번이어야 한다
+    private static final int BATCH_FETCH_MAX_REPEATS = 20;
+
     @Autowired MemberRepository memberRepository;
     @Autowired TeamRepository teamRepository;
     @Autowired EntityManager em;
     @Autowired MemberQueryRepository memberQueryRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MemberUsernameCache usernameCache;
 
     @Test
     public void testMember() {
@@ -85,6 +129,7 @@ class MemberRepositoryTest {
 
     @Test
     @DisplayName("DTO 조회")
+    @QueryBudget(TEAM_MEMBER_QUERY_BUDGET)
     public void findMemberDto() {
         Team teamA = new Team("teamA");
         teamRepository.save(teamA);
@@ -122,7 +167,7 @@ class MemberRepositoryTest {
     @Test
     public void returnType() {
         Member m1 = new Member("AAA", 10);
-        Member m2 = new Member("AAA", 20);
+        Member m2 = new Member("BBB", 20);
 
         memberRepository.save(m1);
         memberRepository.save(m2);
@@ -195,6 +240,65 @@ class MemberRepositoryTest {
     }
 
     @Test
+    @DisplayName("나이별 목록 : count 쿼리가 있는 page 와 없는 slice 가 같은 회원을 같은 순서로")
+    public void findByAgeMatchesSlice() {
+        for (int i = 0; i < 7; i++) {
+            memberRepository.save(new Member("member" + i, i % 2 == 0 ? 10 : 20));
+        }
+        em.flush();
+        em.clear();
+
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.ASC, "username"));
+        Page<Member> page = memberRepository.findByAge(10, pageRequest);
+        assertThat(page.getTotalElements()).isEqualTo(4);
+
+        for (Pageable pageable = pageRequest; ; pageable = pageable.next()) {
+            Page<Member> counted = memberRepository.findByAge(10, pageable);
+            Slice<Member> sliced = memberRepository.findSliceByAge(10, pageable);
+            assertThat(counted.getContent()).extracting(Member::getId)
+                    .containsExactlyElementsOf(sliced.getContent().stream().map(Member::getId).toList());
+            assertThat(counted.getContent()).extracting(Member::getAge).containsOnly(10);
+            assertThat(counted.hasNext()).isEqualTo(sliced.hasNext());
+            if (!sliced.hasNext()) {
+                break;
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("count 쿼리 없는 slice")
+    @QueryBudget(SLICE_BUDGET)
+    public void sliceWithoutCount() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        memberRepository.save(new Member("member1", 10, teamA));
+        memberRepository.save(new Member("member2", 10, teamA));
+        memberRepository.save(new Member("member3", 10));
+        memberRepository.save(new Member("member4", 10));
+        memberRepository.save(new Member("member5", 20));
+        em.flush();
+        em.clear();
+
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "username"));
+        Slice<Member> slice = memberRepository.findSliceByAge(10, pageRequest);
+
+        assertThat(slice).isNotInstanceOf(Page.class);
+        assertThat(slice.getContent()).extracting("username").containsExactly("member4", "member3", "member2");
+        assertThat(slice.hasNext()).isTrue();
+
+        Slice<Member> last = memberRepository.findSliceByAge(10, pageRequest.next());
+        assertThat(last.getContent()).extracting("username").containsExactly("member1");
+        assertThat(last.hasNext()).isFalse();
+
+        Slice<MemberProjection> projections = memberRepository.findSliceByNativeProjection(PageRequest.of(0, 4));
+        assertThat(projections.getContent().size()).isEqualTo(4);
+        assertThat(projections.hasNext()).isTrue();
+        assertThat(memberRepository.findSliceByNativeProjection(PageRequest.of(1, 4)).hasNext()).isFalse();
+    }
+
+    @Test
+    @QueryBudget(TEAM_MEMBER_QUERY_BUDGET)
     public void findMemberLazy() {
 
         Team teamA = new Team("teamA");
@@ -250,6 +354,7 @@ class MemberRepositoryTest {
     }
 
     @Test
+    @QueryBudget(TEAM_MEMBER_QUERY_BUDGET)
     public void specBasic() {
         Team teamA = new Team("teamA");
         em.persist(teamA);
@@ -269,6 +374,64 @@ class MemberRepositoryTest {
         result.forEach(System.out::println);
     }
 
+    @Test
+    @DisplayName("spec 검색 : 필요한 컬럼만 조회, 팀 조건 / 팀 이름이 없으면 team join 없음, (username, id) 커서 페이징")
+    public void searchSpecification() throws Exception {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 30; i++) {
+            em.persist(new Member("m" + (i % 3), i, i % 2 == 0 ? teamA : teamB));
+        }
+        em.flush();
+        em.clear();
+
+        // 조건 : 나이 10 ~ 25, 팀 조건 없음 -> member 테이블만
+        Specification<Member> ageRange = Specification.where(MemberSpec.username(null))
+                .and(MemberSpec.teamName(null))
+                .and(MemberSpec.ageGoe(10))
+                .and(MemberSpec.ageLoe(25));
+        List<MemberSearchRow> all = new ArrayList<>();
+        List<String> sqls = new ArrayList<>();
+        ScrollPosition position = ScrollPosition.keyset();
+        Window<MemberSearchRow> window;
+        do {
+            SqlCapture.start();
+            window = memberRepository.search(ageRange, MemberSearchRow.class, position, 5);
+            sqls.addAll(SqlCapture.stop());
+            all.addAll(window.getContent());
+            if (!window.isEmpty()) {
+                position = window.positionAt(window.size() - 1);
+            }
+        } while (window.hasNext());
+
+        assertThat(all).hasSize(16);
+        assertThat(all).extracting(MemberSearchRow::getAge).allMatch(age -> age >= 10 && age <= 25);
+        assertThat(all).extracting(row -> row.getUsername() + ":" + row.getId())
+                .isSortedAccordingTo(Comparator.comparing((String key) -> key.substring(0, key.indexOf(':')))
+                        .thenComparing(key -> Long.valueOf(key.substring(key.indexOf(':') + 1))));
+        assertThat(sqls).hasSize(4).allSatisfy(sql -> {
+            assertThat(sql.toLowerCase()).doesNotContain("join");
+            assertThat(sql.toLowerCase()).doesNotContain("version"); // 엔티티 전체가 아니라 필요한 컬럼만
+        });
+
+        // 팀 조건 + 팀 이름 : spec 의 inner join 을 projection 도 같이 사용 (join 한 번)
+        Specification<Member> teamFilter = MemberSpec.teamName("teamA").and(MemberSpec.username("m1"));
+        SqlCapture.start();
+        Window<MemberTeamSearchRow> withTeam = memberRepository.search(teamFilter, MemberTeamSearchRow.class, ScrollPosition.keyset(), 100);
+        String sql = SqlCapture.stop().get(0).toLowerCase();
+
+        assertThat(withTeam.getContent()).hasSize(5).allSatisfy(row -> {
+            assertThat(row.getUsername()).isEqualTo("m1");
+            assertThat(row.getTeam().getName()).isEqualTo("teamA");
+        });
+        assertThat(sql.split(" join ")).hasSize(2);
+        assertThat(withTeam.hasNext()).isFalse();
+        assertThat(new ObjectMapper().writeValueAsString(withTeam.getContent().get(0)))
+                .contains("\"username\":\"m1\"", "\"team\":{\"name\":\"teamA\"}");
+    }
+
     @Test
     public void queryByExample() {
         Team teamA = new Team("teamA");
@@ -297,6 +460,7 @@ class MemberRepositoryTest {
 
     // 엔티티를 dto 로 변환하지 않고 인터페이스를 생성하여 dto 객체를 그대로 쿼리 날릴 수 잇음
     @Test
+    @QueryBudget(TEAM_MEMBER_QUERY_BUDGET)
     public void projections() {
         Team teamA = new Team("teamA");
         em.persist(teamA);
@@ -322,6 +486,52 @@ class MemberRepositoryTest {
     }
 
     @Test
+    @DisplayName("중첩 closed projection : username, team.name 두 컬럼만 select")
+    public void nestedClosedProjectionsQueryShape() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("m1", 0, teamA));
+        em.persist(new Member("m1", 0));
+        em.persist(new Member("m2", 0, teamA));
+        em.flush();
+        em.clear();
+
+        SqlCapture.start();
+        List<NestedClosedProjections> result = memberRepository.findProjectionsByUsername("m1", NestedClosedProjections.class);
+        List<String> sqls = SqlCapture.stop();
+
+        assertThat(sqls).hasSize(1);
+        String sql = sqls.get(0).toLowerCase();
+        String selectClause = sql.substring(sql.indexOf("select") + "select".length(), sql.indexOf(" from "));
+        assertThat(selectClause.split(",")).hasSize(2);
+        assertThat(sql).containsOnlyOnce(" join ");
+
+        assertThat(result).hasSize(2);
+        assertThat(result).extracting(NestedClosedProjections::getUsername).containsOnly("m1");
+        assertThat(result).extracting(p -> p.getTeam() == null ? null : p.getTeam().getName())
+                .containsExactlyInAnyOrder("teamA", null);
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isEqualTo(0);
+
+        // 클래스 dto 는 기존과 같은 결과
+        assertThat(memberRepository.findProjectionsByUsername("m2", UsernameOnlyDto.class))
+                .extracting(UsernameOnlyDto::getUsername).containsExactly("m2");
+
+        // 계산 프로퍼티 (@ProjectionExpression) : select 절에서 계산한 컬럼 하나만 조회
+        SqlCapture.start();
+        List<UsernameOnly> usernameOnly = memberRepository.findProjectionsByUsername("m2", UsernameOnly.class);
+        String computedSql = SqlCapture.stop().get(0).toLowerCase();
+        assertThat(usernameOnly).extracting(UsernameOnly::getUsername).containsExactly("m2 0");
+        assertThat(computedSql.substring(0, computedSql.indexOf(" from "))).doesNotContain("member_id");
+
+        // jpql 식은 criteria (Specification) select 로 바꿀 수 없음 -> 쿼리를 만들기 전에 거절 (리포지토리 프록시가 예외 변환)
+        assertThatThrownBy(() -> memberRepository.search(null, UsernameOnly.class, ScrollPosition.keyset(), 10))
+                .isInstanceOf(InvalidDataAccessApiUsageException.class)
+                .hasRootCauseInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("UsernameOnly.username");
+    }
+
+    @Test
+    @QueryBudget(TEAM_MEMBER_QUERY_BUDGET)
     public void nativeQuery() {
         Team teamA = new Team("teamA");
         em.persist(teamA);
@@ -344,4 +554,499 @@ class MemberRepositoryTest {
             System.out.println("teamName = " + teamName);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("keyset 페이징 : 커서로 끝까지 넘기면 (username, id) 순서로 모든 회원을 한 번씩 (username 이 null 인 회원 포함)")
+    public void keysetScrollCoversAllInOrder() {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            // 같은 username 끼리는 id 로 구분, null 은 정렬 맨 앞 (페이지 크기 7 -> 첫 페이지 마지막 row 가 null username 커서)
+            members.add(new Member(i % 3 == 0 ? null : "member" + (i % 5), i));
+        }
+        memberRepository.saveAll(members);
+        em.flush();
+        em.clear();
+
+        List<Long> expected = members.stream()
+                .sorted(Comparator.comparing(Member::getUsername, Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .thenComparing(Member::getId))
+                .map(Member::getId)
+                .toList();
+
+        List<Long> scrolled = new ArrayList<>();
+        ScrollPosition position = MemberCursor.decode(null);
+        while (true) {
+            Window<Member> window = memberRepository.scroll(position, 7);
+            window.forEach(member -> scrolled.add(member.getId()));
+            if (!window.hasNext()) {
+                break;
+            }
+            Member last = window.getContent().get(window.size() - 1);
+            position = MemberCursor.decode(MemberCursor.encode(last.getUsername(), last.getId()));
+        }
+        assertThat(scrolled).containsExactlyElementsOf(expected); // 겹치거나 빠진 회원 없음
+
+        // /members/search 도 같은 커서 / 같은 조건
+        List<Long> searched = new ArrayList<>();
+        position = MemberCursor.decode(null);
+        while (true) {
+            Window<MemberSearchRow> window = memberRepository.search(null, MemberSearchRow.class, position, 7);
+            window.forEach(row -> searched.add(row.getId()));
+            if (!window.hasNext()) {
+                break;
+            }
+            MemberSearchRow last = window.getContent().get(window.size() - 1);
+            position = MemberCursor.decode(MemberCursor.encode(last.getUsername(), last.getId()));
+        }
+        assertThat(searched).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("커서 : null username 은 빈 문자열 / \"null\" 과 구분")
+    public void cursorKeepsNullUsername() {
+        assertThat(((KeysetScrollPosition) MemberCursor.decode(MemberCursor.encode(null, 3L))).getKeys())
+                .containsEntry("username", null).containsEntry("id", 3L);
+        assertThat(((KeysetScrollPosition) MemberCursor.decode(MemberCursor.encode("", 3L))).getKeys())
+                .containsEntry("username", "");
+        assertThat(((KeysetScrollPosition) MemberCursor.decode(MemberCursor.encode("null", 3L))).getKeys())
+                .containsEntry("username", "null");
+    }
+
+    @Test
+    @Tag("perf") // ./gradlew perfTest 에서만 실행 (10만건 seed + 시간 비교)
+    @DisplayName("keyset 페이징 : 깊은 페이지도 첫 페이지와 속도 비슷")
+    public void keysetScroll() {
+        // 10만건 seed (H2 전용 insert ... select)
+        em.createNativeQuery("insert into member (member_id, username, age, version) " +
+                "select n, concat('member', lpad(n, 6, '0')), mod(n, 100), 0 from system_range(1, 100000) r(n)")
+                .executeUpdate();
+        em.clear();
+
+        int size = 20;
+        Window<Member> first = memberRepository.scroll(ScrollPosition.keyset(), size);
+        assertThat(first.size()).isEqualTo(size);
+        assertThat(first.getContent().get(0).getUsername()).isEqualTo("member000001");
+        assertThat(first.hasNext()).isTrue();
+
+        // 5000 페이지 (= 99980 번째 row 이후) 커서
+        Member last = memberRepository.findMemberByUsername("member099980");
+        ScrollPosition deepPosition = MemberCursor.decode(MemberCursor.encode(last.getUsername(), last.getId()));
+
+        Window<Member> deep = memberRepository.scroll(deepPosition, size);
+        assertThat(deep.size()).isEqualTo(size);
+        assertThat(deep.getContent().get(0).getUsername()).isEqualTo("member099981");
+        assertThat(deep.hasNext()).isFalse();
+
+        PageRequest deepOffset = PageRequest.of(4999, size, Sort.by("username", "id"));
+
+        long firstNanos = bestOf(() -> memberRepository.scroll(ScrollPosition.keyset(), size));
+        long deepNanos = bestOf(() -> memberRepository.scroll(deepPosition, size));
+        long offsetNanos = bestOf(() -> memberRepository.findAll(deepOffset));
+
+        System.out.println("keyset page 1    = " + firstNanos / 1000 + "us");
+        System.out.println("keyset page 5000 = " + deepNanos / 1000 + "us");
+        System.out.println("offset page 5000 = " + offsetNanos / 1000 + "us");
+
+        assertThat(deepNanos).isLessThan(firstNanos * 5 + 5_000_000);
+    }
+
+    private long bestOf(Runnable query) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            long start = System.nanoTime();
+            query.run();
+            best = Math.min(best, System.nanoTime() - start);
+            em.clear();
+        }
+        return best;
+    }
+
+    @Test
+    @Tag("perf") // ./gradlew perfTest 에서만 실행
+    @DisplayName("배치 insert : row 단위 저장 vs saveAllBatched (-Dbench.rows=1000000 으로 크기 조절)")
+    public void saveAllBatched() {
+        int rows = Integer.getInteger("bench.rows", 10_000);
+
+        // before : row 마다 flush = row 마다 db 왕복 (IDENTITY 전략일 때와 같은 모양)
+        long start = System.nanoTime();
+        for (int i = 0; i < rows; i++) {
+            memberRepository.save(new Member("single" + i, i % 100));
+            em.flush();
+            if (i % 1000 == 0) {
+                em.clear();
+            }
+        }
+        long singleNanos = System.nanoTime() - start;
+        em.clear();
+
+        // after : batch_size 만큼 묶어서 전송
+        List<Member> members = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            members.add(new Member("batch" + i, i % 100));
+        }
+        start = System.nanoTime();
+        int saved = memberRepository.saveAllBatched(members);
+        long batchNanos = System.nanoTime() - start;
+
+        System.out.println("row 단위 저장     = " + rows * 1_000_000_000L / singleNanos + " rows/sec");
+        System.out.println("saveAllBatched  = " + rows * 1_000_000_000L / batchNanos + " rows/sec");
+
+        assertThat(saved).isEqualTo(rows);
+        assertThat(memberRepository.count()).isEqualTo(rows * 2L);
+    }
+
+    @Test
+    @DisplayName("stream 조회 : 영속성 컨텍스트에 엔티티가 쌓이지 않음")
+    public void streamMemberDto() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 3000; i++) {
+            em.persist(new Member("member" + i, i % 100, i % 2 == 0 ? teamA : null));
+        }
+        em.flush();
+        em.clear();
+
+        long count = 0;
+        long teamCount = 0;
+        try (Stream<MemberDTO> stream = memberRepository.streamMemberDto()) {
+            Iterator<MemberDTO> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                MemberDTO dto = iterator.next();
+                count++;
+                if (dto.getTeamName() != null) {
+                    teamCount++;
+                }
+            }
+        }
+
+        assertThat(count).isEqualTo(3000);
+        assertThat(teamCount).isEqualTo(1500);
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isEqualTo(0);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // 조회마다 트랜잭션(영속성 컨텍스트)을 새로 열어서 2차 캐시를 타도록
+    @DisplayName("username 조회 캐시 : 반복 조회 시 sql 안나감 + 저장 / 삭제 / 벌크 수정 시 무효화")
+    public void usernameCache() {
+        Member m1 = memberRepository.save(new Member("AAA", 10));
+        memberRepository.save(new Member("BBB", 20));
+
+        assertThat(memberRepository.findMemberByUsername("AAA").getAge()).isEqualTo(10); // 캐시 적재
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            for (int i = 0; i < 5; i++) {
+                assertThat(memberRepository.findMemberByUsername("AAA").getId()).isEqualTo(m1.getId());
+                assertThat(memberRepository.findOptionalByUsername("AAA")).isPresent();
+                assertThat(memberRepository.findListByUsername("AAA")).hasSize(1);
+                assertThat(memberRepository.findByUserName("AAA")).hasSize(1);
+            }
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(0);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+
+        // 저장
+        Member m3 = memberRepository.save(new Member("AAA", 30));
+        assertThat(memberRepository.findListByUsername("AAA")).hasSize(2);
+
+        // 삭제
+        memberRepository.delete(m3);
+        assertThat(memberRepository.findListByUsername("AAA")).extracting("id").containsExactly(m1.getId());
+
+        // username 변경
+        m1.setUsername("CCC");
+        memberRepository.save(m1);
+        assertThat(memberRepository.findListByUsername("AAA")).isEmpty();
+        assertThat(memberRepository.findMemberByUsername("CCC").getId()).isEqualTo(m1.getId());
+
+        // 벌크 수정 : 2차 캐시의 Member 가 무효화 되어서 바뀐 나이로 조회
+        transactionTemplate.executeWithoutResult(status -> memberRepository.bulkAgePlus(10));
+        assertThat(memberRepository.findMemberByUsername("CCC").getAge()).isEqualTo(11);
+        assertThat(memberRepository.findReadOnlyByUsername("BBB").getAge()).isEqualTo(21);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("username 조회 캐시 : 무효화 전에 시작한 (REPEATABLE READ) 트랜잭션의 오래된 스냅샷은 캐시에 들어가지 않음")
+    public void usernameCacheIgnoresStaleSnapshot() {
+        Member member = memberRepository.save(new Member("AAA", 10));
+
+        TransactionTemplate reader = new TransactionTemplate(transactionManager);
+        reader.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        reader.setReadOnly(true);
+        reader.executeWithoutResult(status -> {
+            assertThat(memberRepository.count()).isEqualTo(1); // 스냅샷 고정
+
+            // 다른 트랜잭션이 username 변경 후 커밋 -> 무효화
+            TransactionTemplate writer = new TransactionTemplate(transactionManager);
+            writer.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            writer.executeWithoutResult(s -> memberRepository.findById(member.getId()).orElseThrow().setUsername("BBB"));
+
+            memberRepository.findListByUsername("AAA"); // 캐시 miss
+        });
+
+        // 예전 스냅샷의 [id] 가 아니라 커밋 이후의 결과 (없음) 가 캐시됨
+        assertThat(usernameCache.get("AAA", username -> List.of(-1L))).isEmpty();
+        assertThat(memberRepository.findListByUsername("AAA")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("username 캐시 key : db collation 처럼 대소문자 / 악센트 / 끝 공백을 무시")
+    public void usernameCacheKeyFollowsCollation() {
+        assertThat(MemberUsernameCache.normalize("Àaa  ")).isEqualTo(MemberUsernameCache.normalize("aaa"));
+        assertThat(MemberUsernameCache.normalize(" aaa")).isNotEqualTo(MemberUsernameCache.normalize("aaa")); // 앞 공백은 다른 값
+
+        usernameCache.get("aaa", username -> List.of(1L));
+        usernameCache.evict("ÀAA "); // 같은 key 로 묶여 같이 무효화
+        assertThat(usernameCache.get("aaa", username -> List.of(2L))).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("batch fetch : 2000 명 페이지에서 500 개 팀 지연 로딩 시 쿼리 수 고정")
+    @QueryBudget(value = BATCH_FETCH_BUDGET, maxRepeats = BATCH_FETCH_MAX_REPEATS)
+    public void batchFetchTeams() {
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            teams.add(team);
+        }
+        for (int i = 0; i < 2000; i++) {
+            em.persist(new Member("member" + i, i % 100, teams.get(i % 500)));
+        }
+        em.flush();
+        em.clear();
+        em.getEntityManagerFactory().getCache().evict(Team.class); // 2차 캐시가 아닌 db 에서 로딩하도록
+
+        SqlCapture.start();
+        Page<MemberDTO> page = memberRepository.findAll(PageRequest.of(0, 2000))
+                .map(member -> new MemberDTO(member.getId(), member.getUsername(), member.getTeam().getName()));
+        List<String> sqls = SqlCapture.stop();
+
+        assertThat(page.getContent()).hasSize(2000);
+        assertThat(page.getContent()).extracting(MemberDTO::getTeamName).doesNotContainNull();
+        // member 조회 1 + count 1 + team 500 개 / batch 100 = 5
+        assertThat(sqls).hasSize(7);
+    }
+
+    @Test
+    @DisplayName("벌크 수정 IDS : 바뀐 회원만 1차 캐시에서 빠지고 관계없는 팀 / 회원은 영속 상태 유지")
+    public void bulkAgePlusEvictingIds() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        Member young = new Member("young", 5, teamB);
+        Member old = new Member("old", 15, teamA);
+        em.persist(young);
+        em.persist(old);
+        em.flush();
+        em.clear();
+
+        Team findTeamA = em.find(Team.class, teamA.getId());
+        Team findTeamB = em.find(Team.class, teamB.getId());
+        findTeamA.getMembers().size(); // 초기화된 컬렉션 안에 바뀔 회원이 있음
+        Member findYoung = em.find(Member.class, young.getId());
+        Member findOld = em.find(Member.class, old.getId());
+
+        assertThat(memberRepository.bulkAgePlus(10, BulkEviction.IDS)).isEqualTo(1);
+
+        assertThat(em.contains(findYoung)).isTrue();
+        assertThat(em.contains(findTeamB)).isTrue();
+        assertThat(em.contains(findOld)).isFalse();
+        assertThat(em.contains(findTeamA)).isFalse();
+        assertThat(em.find(Member.class, old.getId()).getAge()).isEqualTo(16);
+        assertThat(findYoung.getAge()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("회원이 있는 팀에 회원 추가 : Team.members 를 초기화하지 않고 insert 만")
+    public void addMemberToTeamKeepsMembersLazy() {
+        Team team = new Team("team");
+        em.persist(team);
+        for (int i = 0; i < 3; i++) {
+            em.persist(new Member("member" + i, i, team));
+        }
+        em.flush();
+        em.clear();
+
+        SqlCapture.start();
+        Team findTeam = em.find(Team.class, team.getId());
+        Member added = new Member("added", 10, findTeam);
+        em.persist(added);
+        em.flush();
+        List<String> sqls = SqlCapture.stop();
+
+        // team 조회 1 + (pooled 시퀀스) + insert 1, 기존 회원 로딩 없음 -> 팀 크기와 상관없이 같은 sql
+        assertThat(sqls).hasSizeLessThanOrEqualTo(3).noneMatch(sql -> sql.contains("from member"));
+        assertThat(Hibernate.isInitialized(findTeam.getMembers())).isFalse();
+        assertThat(findTeam.getMembers()).hasSize(4); // 나중에 초기화해도 추가한 회원이 보임
+        assertThat(findTeam.getMembers()).containsOnlyOnce(added);
+    }
+
+    @Test
+    @DisplayName("팀 변경 : 준영속 팀은 초기화하지 않고, 초기화된 예전 팀의 members 에서는 빠짐")
+    public void changeTeamKeepsCollectionsLazy() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        Member member = new Member("member", 10, teamA);
+        em.persist(member);
+        em.flush();
+        em.clear();
+
+        Team detachedB = em.find(Team.class, teamB.getId());
+        em.detach(detachedB);
+        Member findMember = em.find(Member.class, member.getId());
+        Team findA = findMember.getTeam();
+        assertThat(findA.getMembers()).hasSize(1);
+
+        findMember.changeTeam(detachedB); // 준영속 + 초기화 전 컬렉션 -> LazyInitializationException 없음
+        assertThat(findA.getMembers()).isEmpty();
+        assertThat(Hibernate.isInitialized(detachedB.getMembers())).isFalse();
+        em.flush();
+        em.clear();
+
+        assertThat(em.find(Member.class, member.getId()).getTeam().getId()).isEqualTo(teamB.getId());
+    }
+
+    @Test
+    @DisplayName("reassignTeam : update 한 번으로 팀 이동, 컬렉션이 초기화된 팀과 옮겨진 회원만 detach")
+    public void reassignTeam() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        Team teamC = new Team("teamC");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(teamC);
+        List<Long> moved = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Member member = new Member("member" + i, i, i < 5 ? teamA : teamC);
+            em.persist(member);
+            if (i % 2 == 0) {
+                moved.add(member.getId());
+            }
+        }
+        em.flush();
+        em.clear();
+
+        Team findB = em.find(Team.class, teamB.getId());
+        findB.getMembers().size(); // 새로 들어올 팀의 컬렉션이 초기화되어 있음 (@BatchSize 가 다른 팀까지 초기화하지 않도록 먼저)
+        Team findA = em.find(Team.class, teamA.getId());
+        Team findC = em.find(Team.class, teamC.getId());
+        Member stay = em.find(Member.class, moved.get(0) + 1);
+
+        SqlCapture.start();
+        assertThat(memberRepository.reassignTeam(moved, teamB.getId())).isEqualTo(5);
+        List<String> sqls = SqlCapture.stop();
+
+        // member 는 update 한 번 (나머지는 team_stats 증감)
+        assertThat(sqls).filteredOn(sql -> !sql.contains("team_stats")).hasSize(1)
+                .allMatch(sql -> sql.toLowerCase().startsWith("update member"));
+        assertThat(em.contains(findA)).isTrue(); // 컬렉션이 로딩 전이라 예전 값이 없음
+        assertThat(em.contains(findC)).isTrue();
+        assertThat(em.contains(findB)).isFalse();
+        assertThat(em.contains(stay)).isTrue();
+        assertThat(em.find(Team.class, teamB.getId()).getMembers()).extracting(Member::getId).containsExactlyInAnyOrderElementsOf(moved);
+        assertThat(findA.getMembers()).hasSize(2);
+        assertThat(memberRepository.reassignTeam(List.of(), teamB.getId())).isZero();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("벌크 수정 2차 캐시 : IDS 는 바뀐 id 만, TYPE 은 Member region 전체를 비움")
+    public void bulkEvictionSecondLevelCache() {
+        Member young = memberRepository.save(new Member("young", 5)); // 커밋 시점에 2차 캐시에 저장
+        Member old = memberRepository.save(new Member("old", 15));
+        Cache cache = em.getEntityManagerFactory().getCache();
+        assertThat(cache.contains(Member.class, young.getId())).isTrue();
+        assertThat(cache.contains(Member.class, old.getId())).isTrue();
+
+        transactionTemplate.executeWithoutResult(status -> memberRepository.bulkAgePlus(10, BulkEviction.IDS));
+        assertThat(cache.contains(Member.class, young.getId())).isTrue();
+        assertThat(cache.contains(Member.class, old.getId())).isFalse();
+        assertThat(memberRepository.findById(old.getId()).get().getAge()).isEqualTo(16);
+
+        transactionTemplate.executeWithoutResult(status -> memberRepository.bulkAgePlus(10, BulkEviction.TYPE));
+        assertThat(cache.contains(Member.class, young.getId())).isFalse();
+        assertThat(memberRepository.findById(old.getId()).get().getAge()).isEqualTo(17);
+        assertThat(memberRepository.findById(young.getId()).get().getAge()).isEqualTo(5);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("작업 큐 : 가상 스레드 32 개가 skip locked 로 나눠 가져가도 같은 회원을 두 번 처리하지 않음")
+    public void workQueueSkipLocked() throws Exception {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            members.add(new Member("member" + i, 0));
+        }
+        memberRepository.saveAllBatched(members);
+
+        Specification<Member> pending = (root, query, cb) -> cb.equal(root.get("age"), 0);
+        Map<Long, String> processedBy = new ConcurrentHashMap<>();
+        AtomicInteger duplicates = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int w = 0; w < 32; w++) {
+                String owner = "worker" + w;
+                workers.add(executor.submit(() -> {
+                    while (true) {
+                        List<Long> ids = transactionTemplate.execute(status ->
+                                memberRepository.claim(pending, owner, 10, Duration.ofMinutes(1)).stream().map(Member::getId).toList());
+                        if (ids.isEmpty()) {
+                            return null;
+                        }
+                        for (Long id : ids) {
+                            if (processedBy.putIfAbsent(id, owner) != null) {
+                                duplicates.incrementAndGet();
+                            }
+                        }
+                        transactionTemplate.executeWithoutResult(status -> {
+                            memberRepository.findAllById(ids).forEach(member -> member.setAge(1));
+                            memberRepository.release(owner, ids);
+                        });
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(1, TimeUnit.MINUTES);
+            }
+        }
+
+        assertThat(duplicates).hasValue(0);
+        assertThat(processedBy).hasSize(2000);
+        assertThat(memberRepository.findAll()).allMatch(member -> member.getAge() == 1 && member.getLeaseOwner() == null);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("작업 큐 : lease 가 만료되면 다른 워커가 가져가고 이전 워커의 release 는 무시")
+    public void workQueueLeaseExpiry() throws Exception {
+        memberRepository.saveAllBatched(List.of(new Member("member1", 0), new Member("member2", 0)));
+
+        SqlCapture.start();
+        List<Long> first = claimIds("worker1", Duration.ofMillis(1));
+        // 만료 비교 / 만료 시각은 앱 서버 시계가 아니라 같은 쿼리에서 읽은 db 시각
+        assertThat(SqlCapture.stop()).anyMatch(sql -> sql.endsWith("for update skip locked") && sql.contains("localtimestamp"));
+        assertThat(first).hasSize(2);
+
+        Thread.sleep(20);
+        List<Long> second = claimIds("worker2", Duration.ofMinutes(1));
+        assertThat(second).containsExactlyElementsOf(first);
+        assertThat(claimIds("worker3", Duration.ofMinutes(1))).isEmpty();
+
+        assertThat(memberRepository.release("worker1", first)).isZero();
+        assertThat(memberRepository.release("worker2", first)).isEqualTo(2);
+        assertThat(claimIds("worker3", Duration.ofMinutes(1))).hasSize(2);
+    }
+
+    private List<Long> claimIds(String owner, Duration lease) {
+        return transactionTemplate.execute(status ->
+                memberRepository.claim(null, owner, 10, lease).stream().map(Member::getId).toList());
+    }
+}
@@ -0,0 +1,48 @@
+package study.data_jpa.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.data_jpa.controller.CacheStatsController;
+import study.data_jpa.entity.Team;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class TeamRepositoryTest {
+
+    @Autowired TeamRepository teamRepository;
+    @Autowired EntityManagerFactory emf;
+    @Autowired CacheStatsController cacheStatsController;
+
+    @Test
+    @DisplayName("2차 캐시 : 팀 반복 조회 시 sql 이 나가지 않음")
+    public void secondLevelCache() throws Exception {
+        Team team = teamRepository.save(new Team("teamA")); // 커밋 시점에 2차 캐시에 저장
+
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            // findById 마다 트랜잭션 / 영속성 컨텍스트가 새로 열림 -> 1차 캐시가 아닌 2차 캐시에서 조회
+            for (int i = 0; i < 10; i++) {
+                Team findTeam = teamRepository.findById(team.getId()).get();
+                assertThat(findTeam.getName()).isEqualTo("teamA");
+            }
+
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(0);
+            assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(10);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+
+        Map<String, Object> teamRegion = cacheStatsController.stats().get(Team.class.getName());
+        assertThat((Long) teamRegion.get("CacheHits")).isGreaterThanOrEqualTo(10);
+    }
+}
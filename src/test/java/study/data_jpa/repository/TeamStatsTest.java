@@ -0,0 +1,136 @@
+package study.data_jpa.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import study.data_jpa.controller.TeamController;
+import study.data_jpa.dto.TeamStatsDTO;
+import study.data_jpa.entity.Member;
+import study.data_jpa.entity.Team;
+import study.data_jpa.entity.TeamStats;
+import study.data_jpa.service.TeamStatsReconciler;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class TeamStatsTest {
+
+    @Autowired EntityManager em;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired TeamStatsRepository teamStatsRepository;
+    @Autowired TeamStatsReconciler reconciler;
+    @Autowired TeamController teamController;
+
+    @Test
+    @DisplayName("회원 insert / 나이 변경 / 팀 변경 / delete 가 flush 때 team_stats 에 반영")
+    public void incremental() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+        Member member3 = new Member("member3", 30, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(new Member("noTeam", 99));
+        assertStats(teamA, 2, 30);
+        assertStats(teamB, 1, 30);
+
+        Member find1 = em.find(Member.class, member1.getId());
+        find1.setAge(15);
+        assertStats(teamA, 2, 35);
+
+        em.find(Member.class, member2.getId()).changeTeam(em.find(Team.class, teamB.getId()));
+        assertStats(teamA, 1, 15);
+        assertStats(teamB, 2, 50);
+
+        em.remove(em.find(Member.class, member3.getId()));
+        assertStats(teamB, 1, 20);
+
+        TeamStatsDTO dto = teamController.stats(teamB.getId());
+        assertThat(dto.getMemberCount()).isEqualTo(1);
+        assertThat(dto.getAverageAge()).isEqualTo(20.0);
+        assertThat(reconciler.reconcile()).isEmpty();
+
+        em.remove(em.find(Member.class, member2.getId()));
+        em.remove(em.find(Team.class, teamB.getId()));
+        em.flush();
+        em.clear();
+        assertThat(teamStatsRepository.findById(teamB.getId())).isEmpty();
+        assertThatThrownBy(() -> teamController.stats(teamB.getId())).isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    @DisplayName("벌크 update (bulkAgePlus 전부, reassignTeam) 도 team_stats 를 같이 갱신")
+    public void bulkPaths() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        Member young = new Member("young", 5, teamA);
+        Member old = new Member("old", 15, teamA);
+        Member other = new Member("other", 25, teamB);
+        em.persist(young);
+        em.persist(old);
+        em.persist(other);
+
+        memberRepository.bulkAgePlus(10); // old, other
+        assertStats(teamA, 2, 21);
+        assertStats(teamB, 1, 26);
+
+        memberRepository.bulkAgePlus(20, BulkEviction.TYPE); // other
+        memberRepository.bulkAgePlus(10, BulkEviction.IDS); // old, other
+        memberJpaRepository.bulkAgePlus(27); // other
+        memberRepository.bulkAgePlusInRange(0, 0, Long.MAX_VALUE); // 전부
+        assertStats(teamA, 2, 24);
+        assertStats(teamB, 1, 30);
+
+        memberRepository.reassignTeam(List.of(old.getId(), other.getId()), teamB.getId());
+        assertStats(teamA, 1, 6);
+        assertStats(teamB, 2, 48);
+        assertThat(reconciler.reconcile()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("reconcile : 엔티티를 거치지 않은 변경으로 어긋난 팀을 찾아서 다시 계산")
+    public void reconcile() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.flush();
+        em.createNativeQuery("insert into member (member_id, username, age, team_id, version) values (1000000, 'raw', 40, :teamId, 0)")
+                .setParameter("teamId", teamA.getId())
+                .executeUpdate();
+        em.createNativeQuery("insert into team (team_id, name, version) values (1000000, 'rawTeam', 0)").executeUpdate();
+        em.createNativeQuery("insert into team_stats (team_id, member_count, age_sum) values (2000000, 1, 1)").executeUpdate();
+
+        List<TeamStatsReconciler.Drift> drifts = reconciler.reconcile();
+
+        assertThat(drifts).extracting(TeamStatsReconciler.Drift::teamId).containsExactly(teamA.getId(), 1000000L, 2000000L);
+        assertThat(drifts.get(0).actual()).isEqualTo(new TeamStatsReconciler.Counts(1, 10));
+        assertThat(drifts.get(0).expected()).isEqualTo(new TeamStatsReconciler.Counts(2, 50));
+        assertStats(teamA, 2, 50);
+        assertThat(teamStatsRepository.findById(1000000L)).isPresent();
+        assertThat(teamStatsRepository.findById(2000000L)).isEmpty();
+        assertThat(reconciler.reconcile()).isEmpty();
+    }
+
+    private void assertStats(Team team, long memberCount, long ageSum) {
+        em.flush();
+        em.clear(); // TeamStats 는 sql 로만 바뀌므로 1차 캐시의 예전 값을 버리고 다시 조회
+        TeamStats stats = teamStatsRepository.findById(team.getId()).orElseThrow();
+        assertThat(stats.getMemberCount()).isEqualTo(memberCount);
+        assertThat(stats.getAgeSum()).isEqualTo(ageSum);
+    }
+}
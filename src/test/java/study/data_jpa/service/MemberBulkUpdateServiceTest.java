@@ -0,0 +1,202 @@
+package study.data_jpa.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_jpa.entity.BulkJob;
+import study.data_jpa.entity.Member;
+import study.data_jpa.repository.BulkJobRepository;
+import study.data_jpa.repository.MemberRepository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class MemberBulkUpdateServiceTest {
+
+    @Autowired MemberBulkUpdateService memberBulkUpdateService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired BulkJobRepository bulkJobRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Value("${spring.datasource.url}") String url;
+
+    @Test
+    @DisplayName("청크 벌크 업데이트 : 중간에 죽어도 재실행 시 이어서 처리하고 같은 row 를 두 번 올리지 않음")
+    public void resumeAfterFailure() {
+        seed(1000);
+
+        // 3 번째 청크가 커밋된 직후에 죽음
+        assertThatThrownBy(() -> memberBulkUpdateService.bulkAgePlus("agePlus", 10, 100, job -> {
+            if (job.getChunks() == 3) {
+                throw new IllegalStateException("crash");
+            }
+        })).hasMessage("crash");
+
+        BulkJob crashed = bulkJobRepository.findById("agePlus").get();
+        assertThat(crashed.isCompleted()).isFalse();
+        assertThat(crashed.getProcessed()).isEqualTo(150); // 300 row 중 나이 10 이상은 절반
+        assertThat(memberRepository.findAll().stream()
+                .filter(m -> m.getId() > crashed.getLastId() && m.getAge() > 19)).isEmpty(); // 뒤쪽은 손대지 않음
+
+        // 다른 조건으로 이어가려 하면 거부
+        assertThatThrownBy(() -> memberBulkUpdateService.bulkAgePlus("agePlus", 5))
+                .isInstanceOf(IllegalStateException.class);
+
+        BulkJob job = memberBulkUpdateService.bulkAgePlus("agePlus", 10, 100, progress -> {});
+        assertThat(job.isCompleted()).isTrue();
+        assertThat(job.getProcessed()).isEqualTo(500);
+        assertThat(job.getChunks()).isEqualTo(10);
+
+        List<Member> result = memberRepository.findAll();
+        assertThat(result).hasSize(1000);
+        for (Member member : result) {
+            int original = Integer.parseInt(member.getUsername().substring("member".length())) % 20;
+            assertThat(member.getAge()).isEqualTo(original >= 10 ? original + 1 : original);
+        }
+
+        // 완료된 작업은 다시 호출해도 아무것도 하지 않음
+        assertThat(memberBulkUpdateService.bulkAgePlus("agePlus", 10).getProcessed()).isEqualTo(500);
+        assertThat(memberRepository.findAll().stream().mapToInt(Member::getAge).max().getAsInt()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("동시 쓰기 : 단일 update 는 커밋까지 조건에 걸린 row 를 잠그고, 청크는 커밋된 청크 / 아직 안 간 청크의 row 를 잠그지 않음")
+    public void concurrentWriterLockWait() throws Exception {
+        seed(1000);
+        List<Long> ids = memberRepository.findAll(Sort.by("id")).stream().map(Member::getId).toList();
+        Long firstChunkRow = ids.get(19); // 나이 19 -> 조건에 걸림, 청크 크기 100 이면 첫 청크
+        Long lastChunkRow = ids.get(999); // 나이 19, 마지막 청크
+
+        try (Connection writer = writer(100)) {
+            // 단일 update : 트랜잭션이 열려 있는 동안 다른 쓰기는 lock timeout 까지 대기 후 실패
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                memberRepository.bulkAgePlus(10);
+                assertThatThrownBy(() -> rename(writer, lastChunkRow)).hasCauseInstanceOf(SQLException.class);
+                status.setRollbackOnly();
+            });
+
+            // 청크 : 첫 청크가 커밋된 뒤에는 지나간 청크 / 아직 안 간 청크 모두 기다리지 않고 쓸 수 있음
+            List<Long> waits = new ArrayList<>();
+            BulkJob job = memberBulkUpdateService.bulkAgePlus("lockWait", 10, 100, progress -> {
+                if (progress.getChunks() == 1) {
+                    waits.add(rename(writer, firstChunkRow));
+                    waits.add(rename(writer, lastChunkRow));
+                }
+            });
+            assertThat(waits).hasSize(2);
+            assertThat(job.getProcessed()).isEqualTo(500);
+        }
+        assertThat(memberRepository.findById(lastChunkRow).orElseThrow())
+                .extracting(Member::getUsername, Member::getAge)
+                .containsExactly("renamed", 20); // 쓰기와 청크 update 모두 반영
+    }
+
+    @Test
+    @Tag("perf") // ./gradlew perfTest 에서만 실행
+    @DisplayName("단일 update vs 청크 : 처리량과 동시 쓰기의 잠금 대기 (-Dbench.rows=1000000 으로 크기 조절)")
+    public void throughputAndLockWait() throws Exception {
+        int rows = Integer.getInteger("bench.rows", 100_000);
+
+        seed(rows);
+        long start = System.nanoTime();
+        WriterStats single = withWriter(() -> memberRepository.bulkAgePlus(10));
+        long singleNanos = System.nanoTime() - start;
+
+        memberRepository.deleteAllInBatch();
+        seed(rows);
+        start = System.nanoTime();
+        WriterStats chunked = withWriter(() -> memberBulkUpdateService.bulkAgePlus("perf", 10));
+        long chunkedNanos = System.nanoTime() - start;
+
+        System.out.println("단일 update : " + rows * 1_000_000_000L / singleNanos + " rows/sec, 쓰기 " + single);
+        System.out.println("청크 update : " + rows * 1_000_000_000L / chunkedNanos + " rows/sec, 쓰기 " + chunked);
+    }
+
+    // bulk 가 도는 동안 조건에 걸린 row 를 하나씩 (autocommit) 고치면서 update 한 번의 대기 시간을 잰다
+    private WriterStats withWriter(Runnable bulk) throws Exception {
+        List<Long> ids = memberRepository.findAll(Sort.by("id")).stream()
+                .filter(member -> member.getAge() >= 10)
+                .map(Member::getId)
+                .toList();
+        AtomicBoolean done = new AtomicBoolean();
+        WriterStats stats = new WriterStats();
+        Thread thread = Thread.ofVirtual().start(() -> {
+            try (Connection writer = writer(60_000)) {
+                while (!done.get()) {
+                    stats.record(rename(writer, ids.get(ThreadLocalRandom.current().nextInt(ids.size()))));
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        try {
+            bulk.run();
+        } finally {
+            done.set(true);
+            thread.join();
+        }
+        return stats;
+    }
+
+    private void seed(int rows) {
+        List<Member> members = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            members.add(new Member("member" + i, i % 20));
+        }
+        memberRepository.saveAllBatched(members);
+    }
+
+    // 풀과 상관없는 별도 커넥션 (autocommit), lock timeout 을 직접 지정
+    private Connection writer(int lockTimeoutMillis) throws SQLException {
+        Connection connection = DriverManager.getConnection(url, "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("set lock_timeout " + lockTimeoutMillis);
+        }
+        return connection;
+    }
+
+    // 걸린 시간 (nanos) 반환
+    private static long rename(Connection writer, Long id) {
+        long start = System.nanoTime();
+        try (PreparedStatement ps = writer.prepareStatement("update member set username = 'renamed' where member_id = ?")) {
+            ps.setLong(1, id);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static final class WriterStats {
+        private int writes;
+        private long totalNanos;
+        private long maxNanos;
+
+        synchronized void record(long nanos) {
+            writes++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        @Override
+        public synchronized String toString() {
+            return writes + " 번, 평균 대기 " + (writes == 0 ? 0 : totalNanos / writes / 1000) + "us, 최대 대기 " + maxNanos / 1000 + "us";
+        }
+    }
+}
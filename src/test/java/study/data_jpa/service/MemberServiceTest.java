@@ -0,0 +1,93 @@
+package study.data_jpa.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_jpa.entity.Member;
+import study.data_jpa.repository.MemberRepository;
+import study.data_jpa.retry.OptimisticRetryTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// concurrentAddAge : 커밋은 16 x 5 = 80 번, 한 스레드는 다른 스레드가 커밋할 때마다 최대 한 번씩 실패하므로 최대 79 번 실패
+// -> 재시도 횟수를 그보다 크게 잡아야 결과가 항상 같다 (대기 상한도 줄여서 테스트 시간 단축)
+@SpringBootTest
+@TestPropertySource(properties = {
+        "optimistic-retry.max-attempts=100",
+        "optimistic-retry.max-backoff=20ms"
+})
+class MemberServiceTest {
+
+    @Autowired MemberService memberService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired OptimisticRetryTemplate optimisticRetryTemplate;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("낙관적 락 재시도 : 다른 트랜잭션이 먼저 커밋하면 version 충돌 후 새 트랜잭션으로 다시 실행")
+    public void retryOnConflict() throws Exception {
+        Member member = memberRepository.save(new Member("member1", 0));
+        AtomicInteger attempts = new AtomicInteger();
+
+        int age;
+        try (ExecutorService other = Executors.newVirtualThreadPerTaskExecutor()) {
+            age = optimisticRetryTemplate.execute("test.conflict", status -> {
+                Member findMember = memberRepository.findById(member.getId()).get();
+                if (attempts.incrementAndGet() == 1) {
+                    // 읽은 뒤 커밋 전에 다른 트랜잭션이 먼저 수정
+                    CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(s ->
+                            memberRepository.findById(member.getId()).get().setAge(10)), other).join();
+                }
+                findMember.setAge(findMember.getAge() + 1);
+                return findMember.getAge();
+            });
+        }
+
+        assertThat(attempts).hasValue(2);
+        assertThat(age).isEqualTo(11);
+        assertThat(memberRepository.findById(member.getId()).get().getVersion()).isEqualTo(2);
+        assertThat(meterRegistry.get("db.optimistic.conflicts").tag("name", "test.conflict").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("db.optimistic.retries").tag("name", "test.conflict").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("@OptimisticRetry : 동시에 나이를 올려도 잃어버린 수정 없음")
+    public void concurrentAddAge() throws Exception {
+        Member member = memberRepository.save(new Member("member1", 0));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 5; j++) {
+                        memberService.addAge(member.getId(), 1);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        }
+
+        Member findMember = memberRepository.findById(member.getId()).get();
+        assertThat(findMember.getAge()).isEqualTo(80);
+        assertThat(findMember.getVersion()).isEqualTo(80);
+        assertThat(meterRegistry.get("db.optimistic.executions").tags("name", "MemberService.addAge", "outcome", "success")
+                .counter().count()).isEqualTo(80);
+    }
+}